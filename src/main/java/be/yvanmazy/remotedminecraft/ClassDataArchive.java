@@ -0,0 +1,235 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft;
+
+import be.yvanmazy.remotedminecraft.util.FileUtil;
+import be.yvanmazy.remotedminecraft.util.HashUtil;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+final class ClassDataArchive {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassDataArchive.class);
+    private static final String RECORDING_SUFFIX = ".recording";
+    private static final String RECORDER_SUFFIX = ".pid";
+    private static final long VALIDATION_TIMEOUT = 60L;
+
+    private final Path archive;
+    private final Path javaPath;
+    private final List<Path> classpath;
+    private Path recording;
+
+    private ClassDataArchive(final Path archive, final Path javaPath, final List<Path> classpath) {
+        this.archive = archive;
+        this.javaPath = javaPath;
+        this.classpath = classpath;
+    }
+
+    @Contract("_, _, _ -> new")
+    static @NotNull ClassDataArchive of(final @NotNull Path directory, final @NotNull Path javaPath, final @NotNull List<Path> classpath)
+            throws IOException {
+        Objects.requireNonNull(directory, "directory must not be null");
+        // A jar replaced in place keeps its path, the JVM would reject the archive recorded against the previous one
+        final StringBuilder key = new StringBuilder();
+        appendEntry(key, javaPath);
+        for (final Path path : classpath) {
+            appendEntry(key, path);
+        }
+        final String name = HashUtil.toHex(HashUtil.newDigest().digest(key.toString().getBytes(StandardCharsets.UTF_8)));
+        return new ClassDataArchive(directory.resolve(name + ".jsa"), javaPath, List.copyOf(classpath));
+    }
+
+    private static void appendEntry(final @NotNull StringBuilder key, final @NotNull Path path) throws IOException {
+        final Path absolute = path.toAbsolutePath();
+        key.append(absolute);
+        if (Files.exists(absolute)) {
+            final BasicFileAttributes attributes = Files.readAttributes(absolute, BasicFileAttributes.class);
+            key.append('|').append(attributes.size())
+                    .append('|').append(attributes.lastModifiedTime().toMillis())
+                    .append('|').append(attributes.fileKey());
+        }
+        key.append('\n');
+    }
+
+    // Archives can only be created and mapped when every classpath entry is a jar file
+    static boolean isSupported(final @NotNull List<Path> classpath) {
+        for (final Path path : classpath) {
+            if (!Files.isRegularFile(path)) {
+                LOGGER.debug("Class data sharing is disabled, '{}' is not a jar file", path);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NotNull List<String> prepare() throws IOException {
+        if (Files.notExists(this.archive)) {
+            this.publishLeftOvers();
+        }
+        if (Files.isRegularFile(this.archive)) {
+            LOGGER.debug("Using class data archive '{}'", this.archive);
+            // Cache collection removes archives by age, so reuse counts as a use
+            try {
+                FileUtil.touch(this.archive);
+            } catch (final IOException e) {
+                LOGGER.debug("Failed to touch '{}'", this.archive, e);
+            }
+            return List.of("-XX:SharedArchiveFile=" + this.archive.toAbsolutePath());
+        }
+        Files.createDirectories(this.archive.getParent());
+        this.recording = Files.createTempFile(this.archive.getParent(), this.archive.getFileName() + ".", RECORDING_SUFFIX);
+        Files.delete(this.recording);
+        LOGGER.debug("Recording class data archive '{}'", this.archive);
+        return List.of("-XX:ArchiveClassesAtExit=" + this.recording.toAbsolutePath());
+    }
+
+    void attach(final @NotNull Process process) {
+        if (this.recording == null) {
+            return;
+        }
+        final Path recording = this.recording;
+        try {
+            Files.writeString(recorder(recording), Long.toString(process.pid()));
+        } catch (final IOException e) {
+            LOGGER.debug("Failed to record the process dumping '{}'", recording, e);
+        }
+        process.onExit().thenRun(() -> {
+            if (process.exitValue() == 0) {
+                this.publish(recording);
+            } else {
+                // The archive is dumped while the JVM exits, a killed or crashed client leaves a truncated one
+                LOGGER.debug("Discarding class data archive '{}', the client exited with {}", recording, process.exitValue());
+                discard(recording);
+            }
+        });
+    }
+
+    // The recording outlives the controller when it exits first, the next launch publishes what the recorder left behind
+    private void publishLeftOvers() throws IOException {
+        final Path directory = this.archive.getParent();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        final String prefix = this.archive.getFileName() + ".";
+        final List<Path> recordings;
+        try (final Stream<Path> stream = Files.list(directory)) {
+            recordings = stream.map(path -> {
+                final String name = path.getFileName().toString();
+                if (!name.startsWith(prefix)) {
+                    return null;
+                }
+                // A recorder that never dumped leaves only its process id behind
+                if (name.endsWith(RECORDING_SUFFIX + RECORDER_SUFFIX)) {
+                    return path.resolveSibling(name.substring(0, name.length() - RECORDER_SUFFIX.length()));
+                }
+                return name.endsWith(RECORDING_SUFFIX) ? path : null;
+            }).filter(Objects::nonNull).distinct().toList();
+        }
+        for (final Path recording : recordings) {
+            if (!isRecording(recording)) {
+                this.publish(recording);
+            }
+        }
+    }
+
+    private void publish(final @NotNull Path recording) {
+        try {
+            if (Files.isRegularFile(recording) && Files.notExists(this.archive) && this.isValid(recording)) {
+                FileUtil.moveAtomically(recording, this.archive);
+                LOGGER.debug("Published class data archive '{}'", this.archive);
+            }
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to publish class data archive '{}'", this.archive, e);
+        } finally {
+            discard(recording);
+        }
+    }
+
+    // A truncated archive or one that does not match the classpath makes the JVM fail to start when sharing is required
+    private boolean isValid(final @NotNull Path recording) throws IOException {
+        final List<String> command = new ArrayList<>();
+        command.add(this.javaPath.toString());
+        command.add("-Xshare:on");
+        command.add("-XX:SharedArchiveFile=" + recording.toAbsolutePath());
+        command.add("-cp");
+        command.add(this.classpath.stream().map(path -> path.toAbsolutePath().toString()).collect(Collectors.joining(File.pathSeparator)));
+        command.add("-version");
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            if (!process.waitFor(VALIDATION_TIMEOUT, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return false;
+            }
+        } catch (final InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while validating '" + recording + "'");
+        }
+        if (process.exitValue() != 0) {
+            LOGGER.warn("Discarding invalid class data archive '{}'", recording);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isRecording(final @NotNull Path recording) {
+        try {
+            final long pid = Long.parseLong(Files.readString(recorder(recording)).trim());
+            return ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+        } catch (final IOException | NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static void discard(final @NotNull Path recording) {
+        try {
+            Files.deleteIfExists(recording);
+            Files.deleteIfExists(recorder(recording));
+        } catch (final IOException e) {
+            LOGGER.debug("Failed to delete '{}'", recording, e);
+        }
+    }
+
+    private static @NotNull Path recorder(final @NotNull Path recording) {
+        return recording.resolveSibling(recording.getFileName() + RECORDER_SUFFIX);
+    }
+
+}
\ No newline at end of file
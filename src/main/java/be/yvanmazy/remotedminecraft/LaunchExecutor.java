@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft;
+
+import be.yvanmazy.remotedminecraft.event.ProvisioningStage;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class LaunchExecutor {
+
+    private static final int DEFAULT_PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final long LAUNCH_THREAD_KEEP_ALIVE = 5L;
+    private static final AtomicInteger LAUNCH_ID = new AtomicInteger();
+
+    private final Executor launches;
+    private final Executor workers;
+    private final Map<ProvisioningStage, Integer> stageConcurrency;
+    private final StageLimiter limiter;
+
+    private LaunchExecutor(final @NotNull Executor launches,
+                           final @NotNull Executor workers,
+                           final @NotNull Map<ProvisioningStage, Integer> stageConcurrency,
+                           final @Nullable StageLimiter limiter) {
+        this.launches = Objects.requireNonNull(launches, "launches must not be null");
+        this.workers = Objects.requireNonNull(workers, "workers must not be null");
+        this.stageConcurrency = Map.copyOf(stageConcurrency);
+        this.limiter = limiter != null ? limiter : new StageLimiter(this.stageConcurrency);
+    }
+
+    @Contract(pure = true)
+    public static @NotNull LaunchExecutor shared() {
+        return Shared.INSTANCE;
+    }
+
+    @Contract("-> new")
+    public static @NotNull Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Contract("_ -> new")
+    public @NotNull LaunchExecutor withLaunches(final @NotNull Executor launches) {
+        return new LaunchExecutor(launches, this.workers, this.stageConcurrency, this.limiter);
+    }
+
+    @Contract(pure = true)
+    public @NotNull Executor launches() {
+        return this.launches;
+    }
+
+    @Contract(pure = true)
+    public @NotNull Executor workers() {
+        return this.workers;
+    }
+
+    @Contract(pure = true)
+    public @NotNull Map<ProvisioningStage, Integer> stageConcurrency() {
+        return this.stageConcurrency;
+    }
+
+    @NotNull StageLimiter limiter() {
+        return this.limiter;
+    }
+
+    private static @NotNull Executor newLaunchExecutor() {
+        // Launch threads are not daemons so the JVM stays alive until every game is started, they time out afterward
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_PARALLELISM,
+                DEFAULT_PARALLELISM,
+                LAUNCH_THREAD_KEEP_ALIVE,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, "RemotedMinecraft Launch-" + LAUNCH_ID.incrementAndGet()));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public static final class Builder {
+
+        private final Map<ProvisioningStage, Integer> stageConcurrency = new EnumMap<>(ProvisioningStage.class);
+        private Executor launches;
+        private Executor workers;
+
+        private Builder() {
+        }
+
+        @Contract("_ -> this")
+        public @NotNull Builder launches(final @Nullable Executor launches) {
+            this.launches = launches;
+            return this;
+        }
+
+        @Contract("_ -> this")
+        public @NotNull Builder workers(final @Nullable Executor workers) {
+            this.workers = workers;
+            return this;
+        }
+
+        @Contract("_, _ -> this")
+        public @NotNull Builder stageConcurrency(final @NotNull ProvisioningStage stage, final int concurrency) {
+            Objects.requireNonNull(stage, "stage must not be null");
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("concurrency must be greater than 0");
+            }
+            this.stageConcurrency.put(stage, concurrency);
+            return this;
+        }
+
+        @Contract("-> new")
+        public @NotNull LaunchExecutor build() {
+            return new LaunchExecutor(this.launches != null ? this.launches : shared().launches,
+                    this.workers != null ? this.workers : shared().workers,
+                    this.stageConcurrency,
+                    null);
+        }
+
+    }
+
+    private static final class Shared {
+
+        private static final LaunchExecutor INSTANCE = new LaunchExecutor(newLaunchExecutor(),
+                WorkerThreads.newExecutor(),
+                Map.of(ProvisioningStage.CLIENT_JAR, DEFAULT_PARALLELISM,
+                        ProvisioningStage.LIBRARIES, DEFAULT_PARALLELISM,
+                        ProvisioningStage.ASSETS, DEFAULT_PARALLELISM),
+                null);
+
+    }
+
+}
\ No newline at end of file
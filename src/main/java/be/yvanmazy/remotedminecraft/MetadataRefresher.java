@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft;
+
+import be.yvanmazy.remotedminecraft.cache.LockFile;
+import be.yvanmazy.remotedminecraft.config.MetadataFreshness;
+import be.yvanmazy.remotedminecraft.download.DownloadTransport;
+import be.yvanmazy.remotedminecraft.download.RevalidationResult;
+import be.yvanmazy.remotedminecraft.download.SingleFlight;
+import be.yvanmazy.remotedminecraft.util.FileUtil;
+import be.yvanmazy.remotedminecraft.util.JsonUtil;
+import com.google.gson.JsonParseException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Objects;
+
+final class MetadataRefresher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetadataRefresher.class);
+    private static final SingleFlight<Path, Boolean> REVALIDATIONS = new SingleFlight<>();
+
+    private final DownloadTransport transport;
+    private final String url;
+    private final Path path;
+    private final Path validatorsPath;
+    private final MetadataFreshness freshness;
+
+    private boolean refreshed;
+
+    MetadataRefresher(final @NotNull DownloadTransport transport,
+                      final @NotNull String url,
+                      final @NotNull Path path,
+                      final @NotNull MetadataFreshness freshness) {
+        this.transport = Objects.requireNonNull(transport, "transport must not be null");
+        this.url = Objects.requireNonNull(url, "url must not be null");
+        this.path = Objects.requireNonNull(path, "path must not be null");
+        this.validatorsPath = path.resolveSibling(path.getFileName() + ".meta");
+        this.freshness = Objects.requireNonNull(freshness, "freshness must not be null");
+    }
+
+    void prepare() throws IOException {
+        if (Files.notExists(this.path)) {
+            if (this.freshness.isOffline()) {
+                throw new IllegalStateException("Metadata file '" + this.path + "' is missing and refresh is disabled");
+            }
+            this.revalidate();
+        } else if (this.freshness.isStale(this.lastChecked())) {
+            this.revalidate();
+        }
+    }
+
+    boolean revalidate() throws IOException {
+        if (this.freshness.isOffline() || this.refreshed) {
+            return false;
+        }
+        final boolean changed = REVALIDATIONS.execute(this.path.toAbsolutePath().normalize(), this::revalidateUnlocked);
+        this.refreshed = true;
+        return changed;
+    }
+
+    // The request can take as long as the network does, other processes only wait for the file to be swapped
+    private boolean revalidateUnlocked() throws IOException {
+        final Validators validators = Files.exists(this.path) ? this.readValidators() : null;
+        final Path parent = this.path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        // The transport replaces the empty file when the metadata changed
+        final Path temp = Files.createTempFile(parent, this.path.getFileName().toString(), ".tmp");
+        try {
+            final RevalidationResult revalidation = this.transport.downloadIfModified(this.url,
+                    temp,
+                    validators != null ? validators.etag() : null,
+                    validators != null ? validators.lastModified() : null);
+            LOGGER.debug("Revalidated '{}': {}", this.url, revalidation.modified() ? "modified" : "not modified");
+            try (final LockFile ignored = LockFile.acquire(this.path)) {
+                final Validators current = Files.exists(this.path) ? this.readValidators() : null;
+                if (!Objects.equals(current, validators)) {
+                    LOGGER.debug("'{}' was revalidated by another process meanwhile", this.path);
+                    return true;
+                }
+                if (revalidation.modified()) {
+                    FileUtil.moveAtomically(temp, this.path);
+                }
+                this.writeValidators(new Validators(revalidation.etag(), revalidation.lastModified(), System.currentTimeMillis()));
+                return revalidation.modified();
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Instant lastChecked() throws IOException {
+        final Validators validators = this.readValidators();
+        if (validators != null) {
+            return Instant.ofEpochMilli(validators.checked());
+        }
+        return Files.getLastModifiedTime(this.path).toInstant();
+    }
+
+    private @Nullable Validators readValidators() {
+        if (Files.notExists(this.validatorsPath)) {
+            return null;
+        }
+        try {
+            return JsonUtil.fromJson(this.validatorsPath, Validators.class);
+        } catch (final IOException | JsonParseException e) {
+            LOGGER.debug("Failed to read validators of '{}'", this.path, e);
+            return null;
+        }
+    }
+
+    private void writeValidators(final Validators validators) {
+        try {
+            final Path temp = Files.createTempFile(this.validatorsPath.toAbsolutePath().getParent(),
+                    this.validatorsPath.getFileName().toString(),
+                    ".tmp");
+            try {
+                Files.writeString(temp, JsonUtil.toJson(validators));
+                FileUtil.moveAtomically(temp, this.validatorsPath);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to write validators of '{}'", this.path, e);
+        }
+    }
+
+    private record Validators(@Nullable String etag, @Nullable String lastModified, long checked) {
+
+    }
+
+}
\ No newline at end of file
@@ -46,6 +46,9 @@ public interface MinecraftHolder {
     @Contract(pure = true)
     @Nullable Process getProcess();
 
+    @Contract(pure = true)
+    @Nullable LaunchReport getLaunchReport();
+
     @Contract(pure = true)
     @NotNull CompletableFuture<MinecraftHolder> getReadyFuture();
 
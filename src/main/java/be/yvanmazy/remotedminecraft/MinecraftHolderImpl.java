@@ -41,6 +41,7 @@ final class MinecraftHolderImpl implements MinecraftHolder {
 
     private MinecraftState state = MinecraftState.STARTING;
     private Process process;
+    private LaunchReport launchReport;
 
     MinecraftHolderImpl(final @NotNull ProcessConfiguration configuration) {
         this.configuration = Objects.requireNonNull(configuration, "configuration must not be null");
@@ -68,13 +69,19 @@ final class MinecraftHolderImpl implements MinecraftHolder {
         return this.process;
     }
 
+    @Override
+    public @Nullable LaunchReport getLaunchReport() {
+        return this.launchReport;
+    }
+
     @Override
     public @NotNull MinecraftState getState() {
         return this.state;
     }
 
-    void complete(final @NotNull Process process) {
+    void complete(final @NotNull Process process, final @NotNull LaunchReport launchReport) {
         this.process = Objects.requireNonNull(process, "process must not be null");
+        this.launchReport = Objects.requireNonNull(launchReport, "launchReport must not be null");
         if (!this.configuration.independent()) {
             ProcessManager.getInstance().register(process);
         }
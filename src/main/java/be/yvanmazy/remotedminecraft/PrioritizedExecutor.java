@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class PrioritizedExecutor {
+
+    private final Executor delegate;
+    private final int parallelism;
+    private final Queue<Entry> queue = new PriorityBlockingQueue<>(16, Comparator.comparing(Entry::priority).thenComparingLong(Entry::sequence));
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger running = new AtomicInteger();
+
+    PrioritizedExecutor(final @NotNull Executor delegate, final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be greater than 0");
+        }
+        this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+        this.parallelism = parallelism;
+    }
+
+    @NotNull Executor withPriority(final @NotNull Priority priority) {
+        Objects.requireNonNull(priority, "priority must not be null");
+        return command -> this.execute(priority, command);
+    }
+
+    void execute(final @NotNull Priority priority, final @NotNull Runnable command) {
+        Objects.requireNonNull(command, "command must not be null");
+        this.queue.add(new Entry(priority, this.sequence.getAndIncrement(), command));
+        this.drain();
+    }
+
+    private void drain() {
+        while (!this.queue.isEmpty()) {
+            final int current = this.running.get();
+            if (current >= this.parallelism) {
+                return;
+            }
+            if (!this.running.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            final Entry entry = this.queue.poll();
+            if (entry == null) {
+                this.running.decrementAndGet();
+                continue;
+            }
+            final Runnable task = () -> {
+                try {
+                    entry.command().run();
+                } finally {
+                    this.running.decrementAndGet();
+                    this.drain();
+                }
+            };
+            try {
+                this.delegate.execute(task);
+            } catch (final RejectedExecutionException e) {
+                task.run();
+            }
+        }
+    }
+
+    enum Priority {
+
+        CRITICAL,
+        BULK
+
+    }
+
+    private record Entry(Priority priority, long sequence, Runnable command) {
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,190 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft;
+
+import be.yvanmazy.remotedminecraft.auth.Auth;
+import be.yvanmazy.remotedminecraft.config.JvmProfile;
+import be.yvanmazy.remotedminecraft.config.ProcessConfiguration;
+import be.yvanmazy.remotedminecraft.platform.OsType;
+import be.yvanmazy.remotedminecraft.util.FileUtil;
+import be.yvanmazy.remotedminecraft.util.HashUtil;
+import be.yvanmazy.remotedminecraft.version.LaunchTemplate;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+final class ProcessLauncher implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessLauncher.class);
+
+    private final MinecraftHolderImpl holder;
+    private final ProcessConfiguration configuration;
+    private final LaunchExecutor launchExecutor;
+    private final Path directory;
+
+    private LaunchTemplate launchTemplate;
+    private List<Path> classpath;
+    private Map<String, String> placeholderMap;
+    private LaunchReport launchReport;
+
+    ProcessLauncher(final @NotNull MinecraftHolderImpl holder, final @NotNull LaunchExecutor launchExecutor) {
+        this.holder = Objects.requireNonNull(holder, "holder must not be null");
+        this.launchExecutor = Objects.requireNonNull(launchExecutor, "launchExecutor must not be null");
+        this.configuration = holder.getConfiguration();
+        this.directory = this.configuration.processDirectory();
+    }
+
+    @Override
+    public void run() {
+        final Provisioner provisioner = new Provisioner(this.configuration, this.launchExecutor);
+        try {
+            final CompletableFuture<ProvisioningReport> report = provisioner.provision();
+            final CompletableFuture<Void> placeholders = provisioner.classpath().thenAccept(classpath -> {
+                this.launchTemplate = provisioner.getLaunchTemplate();
+                this.preparePlaceholders(classpath);
+            });
+            final ProvisioningReport provisioning = await(report);
+            await(placeholders);
+
+            final Process process = this.launchGame(provisioning);
+            provisioner.release();
+            this.holder.complete(process, this.launchReport);
+        } catch (final Throwable throwable) {
+            provisioner.release();
+            this.holder.completeExceptionally(throwable);
+        }
+    }
+
+    private static <T> T await(final @NotNull CompletableFuture<T> future) throws Throwable {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            throw e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    private @NotNull Process launchGame(final @NotNull ProvisioningReport provisioning) throws IOException {
+        LOGGER.debug("Start the game...");
+
+        final List<String> commands = new ArrayList<>();
+        commands.add(this.configuration.processJavaPath().toString());
+        this.launchTemplate.renderJvm(commands, this.placeholderMap);
+        commands.add("-XX:+EnableDynamicAgentLoading"); // TODO: Make an option for add this
+        final JvmProfile profile = this.configuration.jvmProfile();
+        final List<String> profileArguments = profile.arguments(this.configuration.memoryBudget());
+        commands.addAll(profileArguments);
+        commands.addAll(this.configuration.jvmArguments());
+        final List<String> jvmArguments = new ArrayList<>(commands.subList(1, commands.size()));
+        if (this.configuration.argumentFile()) {
+            final List<String> arguments = commands.subList(1, commands.size());
+            final Path argumentFile = writeArgumentFile(this.directory, arguments);
+            arguments.clear();
+            commands.add('@' + argumentFile.toAbsolutePath().toString());
+        }
+        ClassDataArchive classDataArchive = null;
+        if (this.configuration.classDataSharing() && ClassDataArchive.isSupported(this.classpath)) {
+            final Path sharedCacheDirectory = this.configuration.sharedCacheDirectory();
+            final Path archives = sharedCacheDirectory != null ? sharedCacheDirectory.resolve("cds") : this.directory.resolve("cds");
+            classDataArchive = ClassDataArchive.of(archives, this.configuration.processJavaPath(), this.classpath);
+            final List<String> classDataArguments = classDataArchive.prepare();
+            commands.addAll(classDataArguments);
+            jvmArguments.addAll(classDataArguments);
+        }
+        String mainClass = this.configuration.processMainClass();
+        if (mainClass.isBlank()) {
+            mainClass = this.launchTemplate.mainClass();
+        }
+        commands.add(mainClass);
+        this.launchTemplate.renderGame(commands, this.placeholderMap);
+        commands.addAll(this.configuration.gameArguments());
+
+        ProcessBuilder builder = new ProcessBuilder(commands).directory(this.directory.toFile());
+        if (this.configuration.inheritIO()) {
+            builder.inheritIO();
+        }
+        if (this.configuration.processOperator() != null) {
+            builder = this.configuration.processOperator().apply(builder);
+        }
+        final Process process = builder.start();
+        this.launchReport = new LaunchReport(provisioning, profile, profileArguments, jvmArguments);
+        LOGGER.debug("Started the game with {} profile: {}", profile, profileArguments);
+        if (classDataArchive != null) {
+            classDataArchive.attach(process);
+        }
+        return process;
+    }
+
+    static @NotNull Path writeArgumentFile(final @NotNull Path directory, final @NotNull List<String> arguments) throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        for (final String argument : arguments) {
+            builder.append('"')
+                    .append(argument.replace("\\", "\\\\").replace("\"", "\\\""))
+                    .append('"')
+                    .append(System.lineSeparator());
+        }
+        final byte[] content = builder.toString().getBytes(Charset.defaultCharset());
+        final Path path = directory.resolve("argfiles/" + HashUtil.toHex(HashUtil.newDigest().digest(content)) + ".txt");
+        if (Files.exists(path)) {
+            FileUtil.touch(path);
+            return path;
+        }
+        Files.createDirectories(path.getParent());
+        final Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, content);
+            FileUtil.moveAtomically(temp, path);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return path;
+    }
+
+    private void preparePlaceholders(final @NotNull List<Path> classpath) {
+        this.placeholderMap = new HashMap<>();
+        final Auth auth = this.configuration.authentication();
+        this.placeholderMap.put("auth_access_token", Objects.requireNonNullElse(auth.accessToken(), "0"));
+        if (auth.username() != null) {
+            this.placeholderMap.put("auth_player_name", auth.username());
+        }
+        this.placeholderMap.put("game_directory", FileUtil.toLauncherString(this.directory));
+        this.placeholderMap.put("natives_directory", FileUtil.toLauncherString(this.directory.resolve("natives")));
+        this.classpath = Stream.concat(classpath.stream(), this.configuration.classpath().stream()).toList();
+        this.placeholderMap.put("classpath",
+                this.classpath.stream()
+                        .map(FileUtil::toLauncherString)
+                        .collect(Collectors.joining(OsType.getCurrentType() == OsType.WINDOWS ? ";" : ":")));
+    }
+
+}
\ No newline at end of file
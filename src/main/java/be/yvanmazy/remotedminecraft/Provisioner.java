@@ -0,0 +1,781 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft;
+
+import be.yvanmazy.remotedminecraft.cache.CacheCollector;
+import be.yvanmazy.remotedminecraft.cache.ContentStore;
+import be.yvanmazy.remotedminecraft.cache.LockFile;
+import be.yvanmazy.remotedminecraft.cache.MetadataCache;
+import be.yvanmazy.remotedminecraft.cache.NativesCache;
+import be.yvanmazy.remotedminecraft.cache.VerificationIndex;
+import be.yvanmazy.remotedminecraft.config.AssetFilter;
+import be.yvanmazy.remotedminecraft.config.ProcessConfiguration;
+import be.yvanmazy.remotedminecraft.download.ChecksumException;
+import be.yvanmazy.remotedminecraft.download.DownloadEndpoints;
+import be.yvanmazy.remotedminecraft.download.DownloadReport;
+import be.yvanmazy.remotedminecraft.download.DownloadTask;
+import be.yvanmazy.remotedminecraft.download.DownloadTransport;
+import be.yvanmazy.remotedminecraft.download.ParallelDownloader;
+import be.yvanmazy.remotedminecraft.download.SingleFlight;
+import be.yvanmazy.remotedminecraft.event.ProvisioningEvent;
+import be.yvanmazy.remotedminecraft.event.ProvisioningListener;
+import be.yvanmazy.remotedminecraft.event.ProvisioningStage;
+import be.yvanmazy.remotedminecraft.platform.OsType;
+import be.yvanmazy.remotedminecraft.util.FileUtil;
+import be.yvanmazy.remotedminecraft.util.HashUtil;
+import be.yvanmazy.remotedminecraft.util.JsonUtil;
+import be.yvanmazy.remotedminecraft.version.Assets;
+import be.yvanmazy.remotedminecraft.version.LaunchTemplate;
+import be.yvanmazy.remotedminecraft.version.VersionEntry;
+import be.yvanmazy.remotedminecraft.version.VersionManifest;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+final class Provisioner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Provisioner.class);
+    private static final SingleFlight<Path, Long> DOWNLOADS = new SingleFlight<>();
+    private static final int DOWNLOAD_ATTEMPTS = 3;
+    private static final Duration RETRY_BACKOFF = Duration.ofMillis(100L);
+
+    private final ProcessConfiguration configuration;
+    private final LaunchExecutor launchExecutor;
+    private final Path directory;
+    private final DownloadTransport transport;
+    private final DownloadEndpoints endpoints;
+    private final ContentStore contentStore;
+    private final NativesCache nativesCache;
+    private final AtomicInteger downloadedFiles = new AtomicInteger();
+    private final AtomicLong downloadedBytes = new AtomicLong();
+    private final AtomicInteger skippedAssets = new AtomicInteger();
+    private final Map<ProvisioningStage, Duration> stageDurations = new ConcurrentHashMap<>();
+    private final List<ProvisioningListener> listeners;
+
+    private final CompletableFuture<List<Path>> classpath = new CompletableFuture<>();
+
+    private VerificationIndex verificationIndex;
+    private String versionId;
+    private VersionManifest versionManifest;
+    private LaunchTemplate launchTemplate;
+    private volatile LockFile provisioningLock;
+    private volatile LockFile storeLock;
+
+    Provisioner(final @NotNull ProcessConfiguration configuration, final @NotNull LaunchExecutor launchExecutor) {
+        this.configuration = Objects.requireNonNull(configuration, "configuration must not be null");
+        this.launchExecutor = Objects.requireNonNull(launchExecutor, "launchExecutor must not be null");
+        this.listeners = configuration.listeners();
+        this.directory = configuration.processDirectory();
+        this.transport = configuration.downloadTransport();
+        this.endpoints = configuration.downloadEndpoints();
+        final Path sharedCacheDirectory = configuration.sharedCacheDirectory();
+        this.contentStore = sharedCacheDirectory != null ? new ContentStore(sharedCacheDirectory) : null;
+        this.nativesCache = new NativesCache(sharedCacheDirectory != null
+                ? sharedCacheDirectory.resolve("natives")
+                : this.directory.resolve("natives-cache"));
+    }
+
+    @NotNull CompletableFuture<ProvisioningReport> provision() {
+        final long start = System.nanoTime();
+        final Executor configured = this.configuration.provisioningExecutor();
+        final PrioritizedExecutor executor = new PrioritizedExecutor(configured != null ? configured : this.launchExecutor.workers(),
+                this.configuration.downloadConcurrency());
+        final Executor critical = executor.withPriority(PrioritizedExecutor.Priority.CRITICAL);
+        final Executor bulk = executor.withPriority(PrioritizedExecutor.Priority.BULK);
+
+        final CompletableFuture<VersionManifest> version = this.stage(ProvisioningStage.VERSION, this::prepareVersion, critical);
+        final CompletableFuture<Path> jar = version.thenCompose(v -> this.stage(ProvisioningStage.CLIENT_JAR, this::prepareVersionJar, critical));
+        final CompletableFuture<List<Path>> libraries = version.thenCompose(
+                v -> this.stageAsync(ProvisioningStage.LIBRARIES, () -> this.prepareLibraries(critical), critical));
+        final CompletableFuture<DownloadReport> assets = version.thenCompose(
+                        v -> this.stage(ProvisioningStage.ASSET_INDEX, this::prepareAssetIndex, critical))
+                .thenCompose(index -> this.stageAsync(ProvisioningStage.ASSETS, () -> this.prepareAssets(index, bulk), critical));
+
+        jar.thenCombine(libraries, (jarPath, libraryPaths) -> {
+            final List<Path> paths = new ArrayList<>(libraryPaths.size() + 1);
+            paths.addAll(libraryPaths);
+            paths.add(jarPath);
+            return paths;
+        }).whenComplete((paths, throwable) -> {
+            if (throwable != null) {
+                this.classpath.completeExceptionally(throwable);
+            } else {
+                this.classpath.complete(paths);
+            }
+        });
+
+        return CompletableFuture.allOf(jar, libraries, assets).handle((v, throwable) -> {
+            this.saveVerificationIndex();
+            if (throwable != null) {
+                throw throwable instanceof final CompletionException exception ? exception : new CompletionException(throwable);
+            }
+            return new ProvisioningReport(this.versionId,
+                    this.directory,
+                    jar.join(),
+                    libraries.join(),
+                    this.downloadedFiles.get(),
+                    this.downloadedBytes.get(),
+                    this.skippedAssets.get(),
+                    Duration.ofNanos(System.nanoTime() - start),
+                    this.stageDurations);
+        });
+    }
+
+    // The provisioned files stay protected from cache collection until the caller is done with them
+    void release() {
+        final LockFile storeLock = this.storeLock;
+        if (storeLock != null) {
+            this.storeLock = null;
+            release(storeLock);
+        }
+        final LockFile lock = this.provisioningLock;
+        if (lock != null) {
+            this.provisioningLock = null;
+            release(lock);
+        }
+    }
+
+    @NotNull CompletableFuture<List<Path>> classpath() {
+        return this.classpath;
+    }
+
+    @NotNull LaunchTemplate getLaunchTemplate() {
+        if (this.launchTemplate == null) {
+            throw new IllegalStateException("Version is not provisioned yet");
+        }
+        return this.launchTemplate;
+    }
+
+    private <T> @NotNull CompletableFuture<T> stage(final @NotNull ProvisioningStage stage,
+                                                    final @NotNull Supplier<T> task,
+                                                    final @NotNull Executor executor) {
+        return this.launchExecutor.limiter().submit(stage, () -> CompletableFuture.supplyAsync(() -> this.timed(stage, task), executor));
+    }
+
+    private <T> @NotNull CompletableFuture<T> stageAsync(final @NotNull ProvisioningStage stage,
+                                                         final @NotNull Supplier<CompletableFuture<T>> task,
+                                                         final @NotNull Executor executor) {
+        return this.launchExecutor.limiter()
+                .submit(stage, () -> CompletableFuture.supplyAsync(() -> this.timedAsync(stage, task), executor).thenCompose(Function.identity()));
+    }
+
+    private <T> T timed(final @NotNull ProvisioningStage stage, final @NotNull Supplier<T> task) {
+        final long start = this.startStage(stage);
+        boolean success = false;
+        try {
+            final T value = task.get();
+            success = true;
+            return value;
+        } finally {
+            this.completeStage(stage, start, success);
+        }
+    }
+
+    private <T> @NotNull CompletableFuture<T> timedAsync(final @NotNull ProvisioningStage stage,
+                                                         final @NotNull Supplier<CompletableFuture<T>> task) {
+        final long start = this.startStage(stage);
+        final CompletableFuture<T> future;
+        try {
+            future = task.get();
+        } catch (final RuntimeException | Error e) {
+            this.completeStage(stage, start, false);
+            throw e;
+        }
+        return future.whenComplete((value, throwable) -> this.completeStage(stage, start, throwable == null));
+    }
+
+    private long startStage(final ProvisioningStage stage) {
+        this.emit(new ProvisioningEvent.StageStarted(stage));
+        return System.nanoTime();
+    }
+
+    private void completeStage(final ProvisioningStage stage, final long start, final boolean success) {
+        final Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        this.stageDurations.put(stage, duration);
+        LOGGER.debug("Stage {} completed in {} ms", stage, duration.toMillis());
+        this.emit(new ProvisioningEvent.StageCompleted(stage, duration, success));
+    }
+
+    private void emit(final @NotNull ProvisioningEvent event) {
+        for (final ProvisioningListener listener : this.listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (final RuntimeException e) {
+                LOGGER.warn("Provisioning listener failed to handle {}", event, e);
+            }
+        }
+    }
+
+    private @NotNull VersionManifest prepareVersion() {
+        try {
+            if (!Files.isDirectory(this.directory)) {
+                Files.createDirectories(this.directory);
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException("Failed to create process directory", e);
+        }
+        try {
+            // Held shared until released so that a cache collection never deletes files in use
+            this.provisioningLock = LockFile.acquireShared(CacheCollector.provisioningLock(this.directory));
+            if (this.contentStore != null) {
+                this.storeLock = LockFile.acquireShared(CacheCollector.provisioningLock(this.contentStore.root()));
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException("Failed to lock process directory", e);
+        }
+        this.createLauncherProfiles();
+        this.verificationIndex = VerificationIndex.load(this.directory.resolve("verification_index.json"), this.directory);
+        this.prepareVersionManifest();
+        this.readVersionFile();
+        this.markUsed();
+        return this.versionManifest;
+    }
+
+    private void createLauncherProfiles() {
+        LOGGER.debug("Prepare launcher_profiles...");
+        final Path path = this.directory.resolve("launcher_profiles.json");
+
+        if (Files.notExists(path)) {
+            final JsonObject object = new JsonObject();
+            object.add("profiles", new JsonArray());
+            object.addProperty("version", 3);
+            try {
+                Files.writeString(path, JsonUtil.toJson(object));
+            } catch (final IOException e) {
+                LOGGER.error("Failed to write profiles", e);
+            }
+        }
+        LOGGER.debug("launcher_profiles is ready!");
+    }
+
+    private void prepareVersionManifest() {
+        LOGGER.debug("Prepare version manifest...");
+
+        final Path path = this.directory.resolve("versions/version_manifest.json");
+        final MetadataRefresher refresher = new MetadataRefresher(this.transport,
+                this.endpoints.versionManifest(),
+                path,
+                this.configuration.metadataFreshness());
+        final String expectedVersion = this.configuration.version();
+        VersionEntry version;
+        // The refresher swaps the manifest atomically under its lock, reading it needs none
+        try {
+            refresher.prepare();
+            version = MetadataCache.getInstance().versionEntry(path, expectedVersion);
+            if (version == null && refresher.revalidate()) {
+                version = MetadataCache.getInstance().versionEntry(path, expectedVersion);
+            }
+        } catch (final IOException exception) {
+            throw new IllegalStateException("Failed to read versions", exception);
+        }
+        if (version == null) {
+            throw new IllegalStateException("Version not found: " + expectedVersion);
+        }
+        this.versionId = version.id();
+
+        final Path versionPath = this.directory.resolve("versions/" + this.versionId + '/' + this.versionId + ".json");
+        if (Files.notExists(versionPath.getParent())) {
+            try {
+                Files.createDirectories(versionPath.getParent());
+            } catch (final IOException e) {
+                throw new IllegalStateException("Failed to create version directory", e);
+            }
+        }
+        if (Files.notExists(versionPath)) {
+            this.downloadJarFile(this.endpoints.metadata(version.url()), versionPath, "Failed to download version");
+        }
+    }
+
+    private void markUsed() {
+        final Path marker = CacheCollector.lastUsedMarker(this.directory, this.versionId);
+        try {
+            try {
+                Files.createFile(marker);
+            } catch (final FileAlreadyExistsException e) {
+                Files.setLastModifiedTime(marker, FileTime.from(Instant.now()));
+            }
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to mark version '{}' as used", this.versionId, e);
+        }
+    }
+
+    private void readVersionFile() {
+        LOGGER.debug("Reading version file...");
+
+        final Path versionDirectory = this.directory.resolve("versions/" + this.versionId);
+        try {
+            final Path versionPath = versionDirectory.resolve(this.versionId + ".json");
+            this.versionManifest = MetadataCache.getInstance().versionManifest(versionPath);
+            this.launchTemplate = MetadataCache.getInstance().launchTemplate(versionPath);
+        } catch (final IOException e) {
+            throw new IllegalStateException("Failed to read download url", e);
+        }
+    }
+
+    private @NotNull Path prepareVersionJar() {
+        LOGGER.debug("Prepare version jar...");
+
+        final String version = this.versionId;
+        final VersionManifest.Downloads.Client client = this.versionManifest.downloads().client();
+        final Path jarPath = this.directory.resolve("versions/" + version + '/' + version + ".jar");
+        if (!this.prepareFile(jarPath, this.endpoints.client(client.url()), client.sha1())) {
+            throw new IllegalStateException("Version jar is not valid");
+        }
+
+        LOGGER.debug("Version jar is ready!");
+        return jarPath;
+    }
+
+    private @NotNull CompletableFuture<List<Path>> prepareLibraries(final @NotNull Executor executor) {
+        LOGGER.debug("Prepare libraries...");
+        final Path libs = this.directory.resolve("libraries");
+        final List<VersionManifest.Library.Downloads.Artifact> artifacts = new ArrayList<>(this.versionManifest.libraries().size());
+        final Map<VersionManifest.Library.Downloads.Artifact, VersionManifest.Library> natives = new LinkedHashMap<>();
+        final List<HashUtil.Check> checks = new ArrayList<>(this.versionManifest.libraries().size());
+        for (final VersionManifest.Library library : this.versionManifest.libraries()) {
+            if (!library.isAllowed() || library.downloads() == null) {
+                continue;
+            }
+            final var artifact = library.downloads().artifact();
+            if (artifact != null) {
+                artifacts.add(artifact);
+                if (artifact.sha1() != null) {
+                    checks.add(new HashUtil.Check(libs.resolve(artifact.path()), artifact.sha1()));
+                }
+            }
+            final var nativeArtifact = library.getNativeArtifact();
+            if (nativeArtifact != null) {
+                natives.put(nativeArtifact, library);
+                if (nativeArtifact.sha1() != null) {
+                    checks.add(new HashUtil.Check(libs.resolve(nativeArtifact.path()), nativeArtifact.sha1()));
+                }
+            }
+        }
+        final Set<Path> valid = this.verifyAll(checks);
+        final List<Path> libraries = new ArrayList<>(artifacts.size());
+        final List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (final var artifact : artifacts) {
+            final Path path = libs.resolve(artifact.path());
+            if (!this.prepareLibrary(path, artifact, valid)) {
+                tasks.add(CompletableFuture.runAsync(() -> this.downloadLibrary(path, artifact), executor));
+            }
+            libraries.add(path);
+        }
+        final Path nativesDirectory = this.directory.resolve("natives");
+        try {
+            if (Files.notExists(nativesDirectory)) {
+                Files.createDirectories(nativesDirectory);
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException("Failed to create natives directory", e);
+        }
+        natives.forEach((artifact, library) -> {
+            final Path path = libs.resolve(artifact.path());
+            final boolean ready = this.prepareLibrary(path, artifact, valid);
+            tasks.add(CompletableFuture.runAsync(() -> {
+                if (!ready) {
+                    this.downloadLibrary(path, artifact);
+                }
+                this.extractNatives(path, artifact.sha1(), library.getExtractExcludes(), nativesDirectory);
+            }, executor));
+        });
+        return CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).thenApply(v -> {
+            LOGGER.debug("Libraries are ready!");
+            return libraries;
+        });
+    }
+
+    private boolean prepareLibrary(final @NotNull Path path,
+                                   final @NotNull VersionManifest.Library.Downloads.Artifact artifact,
+                                   final @NotNull Set<Path> valid) {
+        if (valid.contains(path) || (artifact.sha1() == null && Files.exists(path))) {
+            this.adopt(path, artifact.sha1());
+            this.emit(new ProvisioningEvent.CacheLookup(path, true));
+            return true;
+        }
+        return false;
+    }
+
+    private void downloadLibrary(final @NotNull Path path, final @NotNull VersionManifest.Library.Downloads.Artifact artifact) {
+        if (!this.downloadFile(path, this.endpoints.library(artifact.url()), artifact.sha1())) {
+            throw new IllegalStateException("Invalid library");
+        }
+    }
+
+    private void extractNatives(final @NotNull Path path,
+                                final @Nullable String sha1,
+                                final @NotNull List<String> excludes,
+                                final @NotNull Path nativesDirectory) {
+        try {
+            final String key = sha1 != null ? sha1 : HashUtil.hash(path);
+            final String platform = OsType.getCurrentType().name().toLowerCase(Locale.ROOT) + '-' + OsType.getCurrentArch();
+            final boolean symbolic = this.nativesCache.linkInto(this.nativesCache.extract(key, platform, path, excludes), nativesDirectory);
+            if (symbolic && this.contentStore != null) {
+                this.contentStore.markSymbolicLinks();
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException("Failed to extract natives of '" + path + "'", e);
+        }
+    }
+
+    private @NotNull Path prepareAssetIndex() {
+        LOGGER.debug("Prepare asset index...");
+        final VersionManifest.AssetIndex index = this.versionManifest.assetIndex();
+        final Path indexPath = this.directory.resolve("assets/indexes/" + index.id() + ".json");
+        if (!this.prepareFile(indexPath, this.endpoints.metadata(index.url()), index.sha1())) {
+            throw new IllegalStateException("Invalid assets file");
+        }
+        return indexPath;
+    }
+
+    private @NotNull CompletableFuture<DownloadReport> prepareAssets(final @NotNull Path indexPath, final @NotNull Executor executor) {
+        LOGGER.debug("Prepare Assets...");
+        final Path directory = this.directory.resolve("assets");
+        final Map<String, DownloadTask> tasks = new LinkedHashMap<>();
+        try {
+            final Assets assets = MetadataCache.getInstance().assets(indexPath);
+            final AssetFilter filter = this.configuration.assetFilter();
+            final Map<String, Path> objects = new LinkedHashMap<>();
+            final List<String> skipped = new ArrayList<>();
+            for (final Map.Entry<String, Assets.Data> entry : assets.objects().entrySet()) {
+                if (!filter.accepts(entry.getKey())) {
+                    skipped.add(entry.getKey());
+                    continue;
+                }
+                final String hash = entry.getValue().hash();
+                objects.computeIfAbsent(hash, h -> directory.resolve("objects/" + h.substring(0, 2) + "/" + h));
+            }
+            this.recordSkippedAssets(indexPath, skipped);
+            final Set<Path> invalid = new HashSet<>();
+            if (this.configuration.fullVerification()) {
+                final List<HashUtil.Check> checks = new ArrayList<>();
+                objects.forEach((hash, path) -> {
+                    if (Files.isRegularFile(path)) {
+                        checks.add(new HashUtil.Check(path, hash));
+                    }
+                });
+                for (final HashUtil.Check check : this.verify(checks)) {
+                    LOGGER.warn("Asset object '{}' is not valid", check.path());
+                    invalid.add(check.path());
+                }
+            }
+            for (final Map.Entry<String, Path> entry : objects.entrySet()) {
+                final String hash = entry.getKey();
+                final Path downloadPath = entry.getValue();
+                if (invalid.contains(downloadPath)) {
+                    if (this.contentStore != null) {
+                        this.contentStore.removeIfLinked(hash, downloadPath);
+                    }
+                } else if (Files.isRegularFile(downloadPath) || (this.contentStore != null && this.contentStore.link(hash, downloadPath))) {
+                    this.emit(new ProvisioningEvent.CacheLookup(downloadPath, true));
+                    continue;
+                }
+                tasks.put(hash, new DownloadTask(this.endpoints.asset(hash), downloadPath, hash));
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException("Failed to prepare assets", e);
+        }
+        if (tasks.isEmpty()) {
+            LOGGER.debug("Assets are ready!");
+            return CompletableFuture.completedFuture(DownloadReport.EMPTY);
+        }
+
+        final int concurrency = Math.min(this.configuration.downloadConcurrency(), tasks.size());
+        return new ParallelDownloader(executor, concurrency, this::fetchAsset)
+                .downloadAsync(tasks.values())
+                .handle((report, throwable) -> {
+                    if (throwable != null) {
+                        throw new IllegalStateException("Failed to download asset", throwable);
+                    }
+                    LOGGER.debug("Assets are ready! Downloaded {} objects ({} bytes)", report.files(), report.bytes());
+                    return report;
+                });
+    }
+
+    // One reset connection or corrupted transfer among thousands of small objects must not abort the launch, only failures
+    // that outlast the retries do. Objects are hashed while streaming, a mismatch is retried without reading the file again
+    private long fetchAsset(final @NotNull DownloadTask task) throws IOException {
+        final String hash = Objects.requireNonNull(task.sha1(), "sha1 must not be null");
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return this.fetch(task.url(), task.path(), hash, false, this.assetLockTarget(hash));
+            } catch (final FileNotFoundException e) {
+                throw e;
+            } catch (final ChecksumException e) {
+                if (attempt == DOWNLOAD_ATTEMPTS) {
+                    throw e;
+                }
+                LOGGER.warn("Downloaded '{}' is not valid, retrying (attempt {}/{})", task.url(), attempt + 1, DOWNLOAD_ATTEMPTS, e);
+            } catch (final IOException e) {
+                if (attempt == DOWNLOAD_ATTEMPTS) {
+                    throw e;
+                }
+                LOGGER.warn("Failed to download '{}', retrying (attempt {}/{})", task.url(), attempt + 1, DOWNLOAD_ATTEMPTS, e);
+                pause(attempt);
+            }
+        }
+    }
+
+    // Objects share striped locks like the content store, a lock over all of them would queue every launch behind one download
+    private @NotNull Path assetLockTarget(final @NotNull String hash) {
+        return this.directory.resolve("assets/locks").resolve(hash.substring(0, 2));
+    }
+
+    private void recordSkippedAssets(final @NotNull Path indexPath, final @NotNull List<String> skipped) throws IOException {
+        final Path path = indexPath.resolveSibling(indexPath.getFileName() + ".skipped");
+        this.skippedAssets.set(skipped.size());
+        if (skipped.isEmpty()) {
+            Files.deleteIfExists(path);
+            return;
+        }
+        LOGGER.debug("Skipped {} asset objects excluded by {}", skipped.size(), this.configuration.assetFilter());
+        // The record lets later runs and exports tell objects left out on purpose from missing ones
+        Collections.sort(skipped);
+        final String content = String.join("\n", skipped);
+        if (Files.isRegularFile(path) && Files.readString(path).equals(content)) {
+            return;
+        }
+        final Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(temp, content);
+            FileUtil.moveAtomically(temp, path);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private boolean prepareFile(final @NotNull Path path, final @NotNull String url, final @Nullable String sha1) {
+        if (Files.exists(path) && this.isValid(path, sha1)) {
+            this.adopt(path, sha1);
+            this.emit(new ProvisioningEvent.CacheLookup(path, true));
+            return true;
+        }
+        return this.downloadFile(path, url, sha1);
+    }
+
+    private boolean downloadFile(final @NotNull Path path, final @NotNull String url, final @Nullable String sha1) {
+        for (int attempt = 1; attempt <= DOWNLOAD_ATTEMPTS; attempt++) {
+            try {
+                this.fetch(url, path, sha1, true, path);
+                if (sha1 != null) {
+                    this.verificationIndex.record(path, sha1);
+                }
+                return true;
+            } catch (final ChecksumException e) {
+                LOGGER.warn("Downloaded file is not valid", e);
+            } catch (final FileNotFoundException e) {
+                throw new IllegalStateException("Failed to download jar", e);
+            } catch (final IOException e) {
+                if (attempt == DOWNLOAD_ATTEMPTS) {
+                    throw new IllegalStateException("Failed to download jar", e);
+                }
+                LOGGER.warn("Failed to download '{}', resuming (attempt {}/{})", url, attempt + 1, DOWNLOAD_ATTEMPTS, e);
+            }
+        }
+        return false;
+    }
+
+    private static void pause(final int attempt) throws InterruptedIOException {
+        try {
+            Thread.sleep(RETRY_BACKOFF.toMillis() << (attempt - 1));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry a download");
+        }
+    }
+
+    private boolean isValid(final @NotNull Path path, final @Nullable String sha1) {
+        if (sha1 == null) {
+            return true;
+        }
+        return this.verifyAll(List.of(new HashUtil.Check(path, sha1))).contains(path);
+    }
+
+    private @NotNull Set<Path> verifyAll(final @NotNull Collection<HashUtil.Check> checks) {
+        final Set<Path> valid = new HashSet<>();
+        final List<HashUtil.Check> candidates = new ArrayList<>(checks.size());
+        for (final HashUtil.Check check : checks) {
+            if (Files.notExists(check.path())) {
+                continue;
+            }
+            if (!this.configuration.fullVerification() && this.verificationIndex.isVerified(check.path(), check.sha1())) {
+                valid.add(check.path());
+            } else {
+                candidates.add(check);
+            }
+        }
+        final Set<HashUtil.Check> mismatches = new HashSet<>(this.verify(candidates));
+        for (final HashUtil.Check check : candidates) {
+            if (!mismatches.contains(check)) {
+                this.verificationIndex.record(check.path(), check.sha1());
+                valid.add(check.path());
+                continue;
+            }
+            LOGGER.debug("File '{}' does not match its checksum", check.path());
+            this.verificationIndex.invalidate(check.path());
+            if (this.contentStore != null) {
+                try {
+                    this.contentStore.removeIfLinked(check.sha1(), check.path());
+                } catch (final IOException e) {
+                    LOGGER.warn("Failed to evict '{}' from the shared cache", check.sha1(), e);
+                }
+            }
+        }
+        return valid;
+    }
+
+    private static void release(final @NotNull LockFile lock) {
+        try {
+            lock.close();
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to release '{}'", lock.path(), e);
+        }
+    }
+
+    private void saveVerificationIndex() {
+        if (this.verificationIndex == null) {
+            return;
+        }
+        try {
+            this.verificationIndex.save();
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to save verification index", e);
+        }
+    }
+
+    private void adopt(final @NotNull Path path, final @Nullable String sha1) {
+        if (this.contentStore == null || sha1 == null) {
+            return;
+        }
+        try {
+            this.contentStore.adopt(sha1, path);
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to add '{}' to the shared cache", path, e);
+        }
+    }
+
+    private boolean downloadJarFile(final String jarUrl, final Path path, final String errorMessage) {
+        try {
+            this.fetch(jarUrl, path, null, false, path);
+        } catch (final IOException e) {
+            throw new IllegalStateException(errorMessage, e);
+        }
+        return true;
+    }
+
+    private long fetch(final @NotNull String url,
+                       final @NotNull Path path,
+                       final @Nullable String sha1,
+                       final boolean resumable,
+                       final @NotNull Path lockTarget) throws IOException {
+        if (this.contentStore == null || sha1 == null) {
+            this.emit(new ProvisioningEvent.CacheLookup(path, false));
+            return transfer(path.toAbsolutePath().normalize(), () -> this.downloadLocked(url, path, sha1, resumable, lockTarget));
+        }
+        if (this.contentStore.link(sha1, path)) {
+            this.emit(new ProvisioningEvent.CacheLookup(path, true));
+            return 0L;
+        }
+        this.emit(new ProvisioningEvent.CacheLookup(path, false));
+        final Path object = this.contentStore.resolve(sha1);
+        final long size = transfer(object, () -> this.downloadLocked(url, object, sha1, resumable, this.contentStore.lockTarget(sha1)));
+        if (!this.contentStore.link(sha1, path)) {
+            throw new NoSuchFileException(object.toString());
+        }
+        return size;
+    }
+
+    // Callers that join a download in flight report nothing, the bytes were transferred once by its owner
+    private static long transfer(final @NotNull Path key, final @NotNull SingleFlight.Call<Long> call) throws IOException {
+        final AtomicBoolean owner = new AtomicBoolean();
+        final long size = DOWNLOADS.execute(key, () -> {
+            owner.set(true);
+            return call.call();
+        });
+        return owner.get() ? size : 0L;
+    }
+
+    private long downloadLocked(final @NotNull String url,
+                                final @NotNull Path path,
+                                final @Nullable String sha1,
+                                final boolean resumable,
+                                final @NotNull Path lockTarget) throws IOException {
+        try (final LockFile ignored = LockFile.acquire(lockTarget)) {
+            // Another process may have completed it while this one was waiting
+            if (Files.isRegularFile(path) && (sha1 == null || HashUtil.matches(path, sha1))) {
+                LOGGER.debug("File '{}' was provisioned by another process", path);
+                return 0L;
+            }
+            return this.download(url, path, sha1, resumable);
+        }
+    }
+
+    private long download(final @NotNull String url,
+                          final @NotNull Path path,
+                          final @Nullable String sha1,
+                          final boolean resumable) throws IOException {
+        final long start = System.nanoTime();
+        final long size = resumable ? this.transport.downloadResumable(url, path, sha1) : this.transport.download(url, path, sha1);
+        this.downloadedFiles.incrementAndGet();
+        this.downloadedBytes.addAndGet(size);
+        this.emit(new ProvisioningEvent.FileDownloaded(url, path, size, Duration.ofNanos(System.nanoTime() - start)));
+        return size;
+    }
+
+    private @NotNull List<HashUtil.Check> verify(final @NotNull Collection<HashUtil.Check> checks) {
+        if (checks.isEmpty()) {
+            return List.of();
+        }
+        final long start = System.nanoTime();
+        final List<HashUtil.Check> mismatches = HashUtil.verifyAll(checks);
+        this.emit(new ProvisioningEvent.FilesVerified(checks.size(), mismatches.size(), Duration.ofNanos(System.nanoTime() - start)));
+        return mismatches;
+    }
+
+}
\ No newline at end of file
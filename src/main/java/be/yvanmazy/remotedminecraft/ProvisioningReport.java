@@ -0,0 +1,55 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft;
+
+import be.yvanmazy.remotedminecraft.event.ProvisioningStage;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public record ProvisioningReport(@NotNull String versionId,
+                                 @NotNull Path directory,
+                                 @NotNull Path clientJar,
+                                 @NotNull List<Path> libraries,
+                                 int downloadedFiles,
+                                 long downloadedBytes,
+                                 int skippedAssets,
+                                 @NotNull Duration duration,
+                                 @NotNull Map<ProvisioningStage, Duration> stageDurations) {
+
+    public ProvisioningReport {
+        Objects.requireNonNull(versionId, "versionId must not be null");
+        Objects.requireNonNull(directory, "directory must not be null");
+        Objects.requireNonNull(clientJar, "clientJar must not be null");
+        libraries = List.copyOf(libraries);
+        Objects.requireNonNull(duration, "duration must not be null");
+        stageDurations = Map.copyOf(stageDurations);
+    }
+
+}
\ No newline at end of file
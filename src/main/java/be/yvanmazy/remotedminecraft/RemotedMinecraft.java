@@ -24,18 +24,81 @@
 
 package be.yvanmazy.remotedminecraft;
 
+import be.yvanmazy.remotedminecraft.cache.BundleManifest;
+import be.yvanmazy.remotedminecraft.cache.CacheCollector;
+import be.yvanmazy.remotedminecraft.cache.CachePolicy;
+import be.yvanmazy.remotedminecraft.cache.CacheReport;
+import be.yvanmazy.remotedminecraft.cache.VersionBundle;
 import be.yvanmazy.remotedminecraft.config.ProcessConfiguration;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 public final class RemotedMinecraft {
 
     public static @NotNull MinecraftHolder run(final @NotNull ProcessConfiguration configuration) {
+        return run(configuration, LaunchExecutor.shared());
+    }
+
+    public static @NotNull MinecraftHolder run(final @NotNull ProcessConfiguration configuration, final @NotNull Executor executor) {
+        return run(configuration, LaunchExecutor.shared().withLaunches(executor));
+    }
+
+    public static @NotNull MinecraftHolder run(final @NotNull ProcessConfiguration configuration,
+                                               final @NotNull LaunchExecutor launchExecutor) {
+        Objects.requireNonNull(launchExecutor, "launchExecutor must not be null");
         final var holder = new MinecraftHolderImpl(configuration);
-        final ProcessThread thread = new ProcessThread(holder);
-        thread.start();
+        final ProcessLauncher launcher = new ProcessLauncher(holder, launchExecutor);
+        try {
+            launchExecutor.launches().execute(launcher);
+        } catch (final RejectedExecutionException e) {
+            holder.completeExceptionally(e);
+        }
         return holder;
     }
 
+    public static @NotNull CompletableFuture<ProvisioningReport> prefetch(final @NotNull ProcessConfiguration configuration) {
+        return prefetch(configuration, LaunchExecutor.shared());
+    }
+
+    public static @NotNull CompletableFuture<ProvisioningReport> prefetch(final @NotNull ProcessConfiguration configuration,
+                                                                          final @NotNull LaunchExecutor launchExecutor) {
+        Objects.requireNonNull(configuration, "configuration must not be null");
+        final Provisioner provisioner = new Provisioner(configuration, launchExecutor);
+        return provisioner.provision().whenComplete((report, throwable) -> provisioner.release());
+    }
+
+    public static @NotNull CacheReport gc(final @NotNull Path directory, final @NotNull CachePolicy policy) throws IOException {
+        return gc(directory, null, policy);
+    }
+
+    public static @NotNull CacheReport gc(final @NotNull Path directory,
+                                          final @Nullable Path sharedCacheDirectory,
+                                          final @NotNull CachePolicy policy) throws IOException {
+        return new CacheCollector(directory, sharedCacheDirectory, policy).collect();
+    }
+
+    public static @NotNull BundleManifest exportBundle(final @NotNull Path directory, final @NotNull String version, final @NotNull Path bundle)
+            throws IOException {
+        return VersionBundle.export(directory, version, bundle);
+    }
+
+    public static @NotNull BundleManifest importBundle(final @NotNull Path bundle, final @NotNull Path directory) throws IOException {
+        return importBundle(bundle, directory, null);
+    }
+
+    public static @NotNull BundleManifest importBundle(final @NotNull Path bundle,
+                                                       final @NotNull Path directory,
+                                                       final @Nullable Path sharedCacheDirectory) throws IOException {
+        return VersionBundle.importInto(bundle, directory, sharedCacheDirectory, LaunchExecutor.shared().workers());
+    }
+
     private RemotedMinecraft() throws IllegalAccessException {
         throw new IllegalAccessException("You cannot instantiate this class");
     }
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft;
+
+import be.yvanmazy.remotedminecraft.event.ProvisioningStage;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+final class StageLimiter {
+
+    private final Map<ProvisioningStage, Limit> limits = new EnumMap<>(ProvisioningStage.class);
+
+    StageLimiter(final @NotNull Map<ProvisioningStage, Integer> concurrency) {
+        Objects.requireNonNull(concurrency, "concurrency must not be null");
+        concurrency.forEach((stage, permits) -> this.limits.put(stage, new Limit(permits)));
+    }
+
+    <T> @NotNull CompletableFuture<T> submit(final @NotNull ProvisioningStage stage, final @NotNull Supplier<CompletableFuture<T>> task) {
+        Objects.requireNonNull(stage, "stage must not be null");
+        Objects.requireNonNull(task, "task must not be null");
+        final Limit limit = this.limits.get(stage);
+        if (limit == null) {
+            return start(task);
+        }
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        limit.acquire(() -> start(task).whenComplete((value, throwable) -> {
+            limit.release();
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+            } else {
+                result.complete(value);
+            }
+        }));
+        return result;
+    }
+
+    private static <T> @NotNull CompletableFuture<T> start(final @NotNull Supplier<CompletableFuture<T>> task) {
+        try {
+            return task.get();
+        } catch (final Throwable throwable) {
+            return CompletableFuture.failedFuture(throwable);
+        }
+    }
+
+    // Waiting launches are queued instead of blocking a thread until a permit is released
+    private static final class Limit {
+
+        private final int permits;
+        private final Queue<Runnable> pending = new ArrayDeque<>();
+        private int running;
+
+        private Limit(final int permits) {
+            this.permits = permits;
+        }
+
+        private void acquire(final @NotNull Runnable task) {
+            synchronized (this) {
+                if (this.running >= this.permits) {
+                    this.pending.add(task);
+                    return;
+                }
+                this.running++;
+            }
+            task.run();
+        }
+
+        private void release() {
+            final Runnable next;
+            synchronized (this) {
+                next = this.pending.poll();
+                if (next == null) {
+                    this.running--;
+                    return;
+                }
+            }
+            next.run();
+        }
+
+    }
+
+}
\ No newline at end of file
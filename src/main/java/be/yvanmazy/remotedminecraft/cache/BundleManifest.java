@@ -0,0 +1,56 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.cache;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Objects;
+
+public record BundleManifest(int format, @NotNull String versionId, @NotNull List<Entry> files) {
+
+    public static final int FORMAT = 1;
+
+    public BundleManifest {
+        Objects.requireNonNull(versionId, "versionId must not be null");
+        files = files != null ? List.copyOf(files) : List.of();
+    }
+
+    @Contract(pure = true)
+    public long totalSize() {
+        return this.files.stream().mapToLong(Entry::size).sum();
+    }
+
+    public record Entry(@NotNull String path, @NotNull String sha1, long size) {
+
+        public Entry {
+            Objects.requireNonNull(path, "path must not be null");
+            Objects.requireNonNull(sha1, "sha1 must not be null");
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,495 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.cache;
+
+import be.yvanmazy.remotedminecraft.version.Assets;
+import be.yvanmazy.remotedminecraft.version.VersionManifest;
+import com.google.gson.JsonParseException;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+public final class CacheCollector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheCollector.class);
+    private static final String LAST_USED_MARKER = ".last-used";
+    private static final List<String> SIDECAR_SUFFIXES = List.of(".lock.owner", ".lock", ".part.json", ".part", ".skipped", ".tmp");
+    private static final Pattern HEX = Pattern.compile("[0-9a-f]{2}");
+
+    private final Path directory;
+    private final Path sharedCacheDirectory;
+    private final CachePolicy policy;
+    private final Map<Path, Long> sizes = new HashMap<>();
+    private int deletedFiles;
+    private long freedBytes;
+
+    public CacheCollector(final @NotNull Path directory, final @NotNull CachePolicy policy) {
+        this(directory, null, policy);
+    }
+
+    public CacheCollector(final @NotNull Path directory, final @Nullable Path sharedCacheDirectory, final @NotNull CachePolicy policy) {
+        this.directory = Objects.requireNonNull(directory, "directory must not be null").toAbsolutePath().normalize();
+        this.sharedCacheDirectory = sharedCacheDirectory != null ? sharedCacheDirectory.toAbsolutePath().normalize() : null;
+        this.policy = Objects.requireNonNull(policy, "policy must not be null");
+    }
+
+    @Contract(pure = true)
+    public static @NotNull Path provisioningLock(final @NotNull Path directory) {
+        return directory.resolve("provisioning");
+    }
+
+    @Contract(pure = true)
+    public static @NotNull Path lastUsedMarker(final @NotNull Path directory, final @NotNull String versionId) {
+        return directory.resolve("versions/" + versionId + '/' + LAST_USED_MARKER);
+    }
+
+    public @NotNull CacheReport collect() throws IOException {
+        if (!Files.isDirectory(this.directory)) {
+            return new CacheReport(List.of(), 0, 0L, 0L);
+        }
+        // Provisioners hold this lock shared, so nothing is being downloaded or resolved while it is held
+        try (final LockFile ignored = LockFile.acquire(provisioningLock(this.directory))) {
+            final List<VersionUsage> retained = this.scanVersions();
+            final List<VersionUsage> evicted = this.selectEvicted(retained);
+            for (final VersionUsage version : evicted) {
+                LOGGER.debug("Evicting version '{}' last used at {}", version.id(), version.lastUsed());
+                this.delete(version.directory());
+            }
+            final boolean readable = retained.stream().allMatch(VersionUsage::readable);
+            if (readable) {
+                this.sweep(retained);
+            } else {
+                LOGGER.warn("Skipping orphan collection of '{}', some version files cannot be read", this.directory);
+            }
+            final List<Path> generated = new ArrayList<>(List.of(this.directory.resolve("cds"), this.directory.resolve("argfiles")));
+            if (this.sharedCacheDirectory != null) {
+                generated.add(this.sharedCacheDirectory.resolve("cds"));
+            }
+            this.sweepUnused(generated);
+            if (this.sharedCacheDirectory != null && readable) {
+                // Provisioners of every directory sharing the store hold this one shared while they link from it
+                try (final LockFile ignoredStore = LockFile.acquire(provisioningLock(this.sharedCacheDirectory))) {
+                    this.sweepStore(retained);
+                }
+            }
+            final List<Path> roots = new ArrayList<>(List.of(this.directory.resolve("versions"),
+                    this.directory.resolve("libraries"),
+                    this.directory.resolve("assets"),
+                    this.directory.resolve("natives-cache")));
+            roots.addAll(generated);
+            if (this.sharedCacheDirectory != null) {
+                roots.add(this.sharedCacheDirectory);
+            }
+            return new CacheReport(evicted.stream().map(VersionUsage::id).sorted().toList(), this.deletedFiles, this.freedBytes, diskUsage(roots));
+        }
+    }
+
+    private @NotNull List<VersionUsage> scanVersions() throws IOException {
+        final Path versions = this.directory.resolve("versions");
+        if (!Files.isDirectory(versions)) {
+            return new ArrayList<>();
+        }
+        final List<Path> directories;
+        try (final Stream<Path> stream = Files.list(versions)) {
+            directories = stream.filter(Files::isDirectory).toList();
+        }
+        final List<VersionUsage> usages = new ArrayList<>(directories.size());
+        for (final Path directory : directories) {
+            final String id = directory.getFileName().toString();
+            final Path json = directory.resolve(id + ".json");
+            final Path marker = directory.resolve(LAST_USED_MARKER);
+            final Instant lastUsed = Files.getLastModifiedTime(Files.exists(marker) ? marker : Files.exists(json) ? json : directory).toInstant();
+            final Set<Path> files = new HashSet<>();
+            final Set<String> natives = new HashSet<>();
+            boolean readable = true;
+            if (Files.exists(json)) {
+                try {
+                    this.collectFiles(MetadataCache.getInstance().versionManifest(json), files, natives);
+                } catch (final IOException | JsonParseException e) {
+                    LOGGER.warn("Failed to read version '{}'", json, e);
+                    readable = false;
+                }
+            }
+            usages.add(new VersionUsage(id, directory, lastUsed, files, natives, readable));
+        }
+        return usages;
+    }
+
+    private void collectFiles(final @NotNull VersionManifest manifest, final @NotNull Set<Path> files, final @NotNull Set<String> natives)
+            throws IOException {
+        final Path libraries = this.directory.resolve("libraries");
+        for (final VersionManifest.Library library : manifest.libraries()) {
+            final var downloads = library.downloads();
+            if (downloads == null) {
+                continue;
+            }
+            if (downloads.artifact() != null && downloads.artifact().path() != null) {
+                files.add(libraries.resolve(downloads.artifact().path()));
+            }
+            if (downloads.classifiers() != null) {
+                for (final var artifact : downloads.classifiers().values()) {
+                    if (artifact.path() != null) {
+                        files.add(libraries.resolve(artifact.path()));
+                    }
+                    if (artifact.sha1() != null) {
+                        natives.add(artifact.sha1());
+                    }
+                }
+            }
+        }
+        final VersionManifest.AssetIndex index = manifest.assetIndex();
+        if (index == null) {
+            return;
+        }
+        final Path assets = this.directory.resolve("assets");
+        final Path indexPath = assets.resolve("indexes/" + index.id() + ".json");
+        files.add(indexPath);
+        if (Files.exists(indexPath)) {
+            for (final Assets.Data data : MetadataCache.getInstance().assets(indexPath).objects().values()) {
+                final String hash = data.hash();
+                files.add(assets.resolve("objects/" + hash.substring(0, 2) + '/' + hash));
+            }
+        }
+    }
+
+    private @NotNull List<VersionUsage> selectEvicted(final @NotNull List<VersionUsage> retained) throws IOException {
+        final Instant now = Instant.now();
+        final List<VersionUsage> evicted = new ArrayList<>();
+        retained.sort(Comparator.comparing(VersionUsage::lastUsed));
+        for (final Iterator<VersionUsage> iterator = retained.iterator(); iterator.hasNext(); ) {
+            final VersionUsage version = iterator.next();
+            if (!this.policy.pinned().contains(version.id())
+                    && Duration.between(version.lastUsed(), now).compareTo(this.policy.maxUnused()) > 0) {
+                iterator.remove();
+                evicted.add(version);
+            }
+        }
+        if (this.policy.maxBytes() == Long.MAX_VALUE) {
+            return evicted;
+        }
+        // Least recently used versions go first until what the remaining ones reference fits the budget
+        while (this.liveSize(retained) > this.policy.maxBytes()) {
+            final VersionUsage oldest = retained.stream().filter(version -> !this.policy.pinned().contains(version.id())).findFirst().orElse(null);
+            if (oldest == null) {
+                LOGGER.warn("Pinned versions of '{}' exceed the size budget of {} bytes", this.directory, this.policy.maxBytes());
+                break;
+            }
+            retained.remove(oldest);
+            evicted.add(oldest);
+        }
+        return evicted;
+    }
+
+    private long liveSize(final @NotNull List<VersionUsage> retained) throws IOException {
+        final Set<Path> files = new HashSet<>();
+        final Set<String> natives = new HashSet<>();
+        long size = 0L;
+        for (final VersionUsage version : retained) {
+            size += this.sizeOf(version.directory());
+            files.addAll(version.files());
+            natives.addAll(version.natives());
+        }
+        for (final Path file : files) {
+            size += this.sizeOf(file);
+        }
+        for (final Path extracted : this.listNatives()) {
+            if (natives.contains(nativeKey(extracted))) {
+                size += this.sizeOf(extracted);
+            }
+        }
+        return size;
+    }
+
+    private void sweep(final @NotNull List<VersionUsage> retained) throws IOException {
+        final Set<Path> live = new HashSet<>();
+        final Set<String> natives = new HashSet<>();
+        for (final VersionUsage version : retained) {
+            live.addAll(version.files());
+            natives.addAll(version.natives());
+        }
+        for (final Path root : List.of(this.directory.resolve("libraries"),
+                this.directory.resolve("assets/objects"),
+                this.directory.resolve("assets/indexes"))) {
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            final List<Path> files;
+            try (final Stream<Path> stream = Files.walk(root)) {
+                files = stream.filter(Files::isRegularFile).toList();
+            }
+            for (final Path file : files) {
+                if (!live.contains(stripSidecar(file))) {
+                    this.delete(file);
+                }
+            }
+            pruneEmptyDirectories(root);
+        }
+        for (final Path extracted : this.listNatives()) {
+            if (!natives.contains(nativeKey(extracted))) {
+                this.delete(extracted);
+            }
+        }
+    }
+
+    private void sweepUnused(final @NotNull List<Path> roots) throws IOException {
+        final Instant now = Instant.now();
+        for (final Path root : roots) {
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            final List<Path> files;
+            try (final Stream<Path> stream = Files.walk(root)) {
+                files = stream.filter(Files::isRegularFile).toList();
+            }
+            for (final Path file : files) {
+                if (Duration.between(Files.getLastModifiedTime(file).toInstant(), now).compareTo(this.policy.maxUnused()) <= 0) {
+                    continue;
+                }
+                try {
+                    this.delete(file);
+                } catch (final IOException e) {
+                    LOGGER.warn("Failed to delete unused '{}'", file, e);
+                }
+            }
+        }
+    }
+
+    // Process directories hard link store objects, an object only its own link is left on is unused by all of them
+    private void sweepStore(final @NotNull List<VersionUsage> retained) throws IOException {
+        if (new ContentStore(this.sharedCacheDirectory).hasSymbolicLinks()) {
+            LOGGER.warn("Skipping collection of '{}', a process directory links to it symbolically", this.sharedCacheDirectory);
+            return;
+        }
+        for (final VersionUsage version : retained) {
+            for (final Path file : version.files()) {
+                if (Files.isSymbolicLink(file)) {
+                    LOGGER.warn("Skipping collection of '{}', '{}' links to it symbolically", this.sharedCacheDirectory, file);
+                    return;
+                }
+            }
+        }
+        final List<Path> objects = new ArrayList<>();
+        try (final Stream<Path> stream = Files.list(this.sharedCacheDirectory)) {
+            for (final Path directory : stream.filter(Files::isDirectory).toList()) {
+                final String name = directory.getFileName().toString();
+                if (HEX.matcher(name).matches() || name.equals("natives")) {
+                    objects.add(directory);
+                }
+            }
+        }
+        final Set<Path> unused = new HashSet<>();
+        final List<Path> sidecars = new ArrayList<>();
+        for (final Path root : objects) {
+            final boolean natives = root.getFileName().toString().equals("natives");
+            final List<Path> children;
+            try (final Stream<Path> stream = Files.list(root)) {
+                children = stream.toList();
+            }
+            for (final Path child : children) {
+                if (!natives && !stripSidecar(child).equals(child)) {
+                    sidecars.add(child);
+                    continue;
+                }
+                final int links = natives ? maxLinkCount(child) : linkCount(child);
+                if (links < 0) {
+                    LOGGER.debug("Skipping collection of '{}', link counts are not supported", this.sharedCacheDirectory);
+                    return;
+                }
+                if (links <= 1) {
+                    unused.add(child);
+                }
+            }
+        }
+        for (final Path path : unused) {
+            this.delete(path);
+        }
+        for (final Path sidecar : sidecars) {
+            final Path object = stripSidecar(sidecar);
+            if (unused.contains(object) || Files.notExists(object)) {
+                this.delete(sidecar);
+            }
+        }
+        for (final Path root : objects) {
+            pruneEmptyDirectories(root);
+            if (!root.getFileName().toString().equals("natives")) {
+                try (final Stream<Path> stream = Files.list(root)) {
+                    if (stream.findAny().isEmpty()) {
+                        Files.deleteIfExists(root);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int maxLinkCount(final @NotNull Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return linkCount(directory);
+        }
+        int links = 1;
+        try (final Stream<Path> stream = Files.walk(directory)) {
+            for (final Path file : stream.filter(Files::isRegularFile).toList()) {
+                final int count = linkCount(file);
+                if (count < 0) {
+                    return count;
+                }
+                links = Math.max(links, count);
+            }
+        }
+        return links;
+    }
+
+    private static int linkCount(final @NotNull Path file) {
+        try {
+            return (Integer) Files.getAttribute(file, "unix:nlink", LinkOption.NOFOLLOW_LINKS);
+        } catch (final UnsupportedOperationException | IllegalArgumentException | IOException e) {
+            return -1;
+        }
+    }
+
+    private @NotNull List<Path> listNatives() throws IOException {
+        final Path root = this.directory.resolve("natives-cache");
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (final Stream<Path> stream = Files.list(root)) {
+            return stream.toList();
+        }
+    }
+
+    private void delete(final @NotNull Path path) throws IOException {
+        final List<Path> paths;
+        try (final Stream<Path> stream = Files.walk(path)) {
+            paths = stream.sorted(Comparator.reverseOrder()).toList();
+        }
+        for (final Path child : paths) {
+            final boolean file = !Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS);
+            final long size = file ? freedSize(child) : 0L;
+            if (Files.deleteIfExists(child) && file) {
+                this.deletedFiles++;
+                this.freedBytes += size;
+                MetadataCache.getInstance().invalidate(child);
+            }
+        }
+    }
+
+    // Deleting a symbolic link or one of several hard links to a file frees nothing
+    private static long freedSize(final @NotNull Path file) throws IOException {
+        if (Files.isSymbolicLink(file) || linkCount(file) > 1) {
+            return 0L;
+        }
+        return Files.size(file);
+    }
+
+    private static long diskUsage(final @NotNull List<Path> roots) throws IOException {
+        final Set<Object> counted = new HashSet<>();
+        long size = 0L;
+        for (final Path root : roots) {
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            try (final Stream<Path> stream = Files.walk(root)) {
+                for (final Path file : stream.toList()) {
+                    final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    final Object fileKey = attributes.fileKey();
+                    if (attributes.isRegularFile() && (fileKey == null || counted.add(fileKey))) {
+                        size += attributes.size();
+                    }
+                }
+            }
+        }
+        return size;
+    }
+
+    private long sizeOf(final @NotNull Path path) throws IOException {
+        final Long cached = this.sizes.get(path);
+        if (cached != null) {
+            return cached;
+        }
+        long size = 0L;
+        if (Files.isRegularFile(path)) {
+            size = Files.size(path);
+        } else if (Files.isDirectory(path)) {
+            try (final Stream<Path> stream = Files.walk(path)) {
+                for (final Path file : stream.filter(Files::isRegularFile).toList()) {
+                    size += Files.size(file);
+                }
+            }
+        }
+        this.sizes.put(path, size);
+        return size;
+    }
+
+    private static @NotNull Path stripSidecar(final @NotNull Path file) {
+        final String name = file.getFileName().toString();
+        for (final String suffix : SIDECAR_SUFFIXES) {
+            if (name.endsWith(suffix)) {
+                return file.resolveSibling(name.substring(0, name.length() - suffix.length()));
+            }
+        }
+        return file;
+    }
+
+    private static @NotNull String nativeKey(final @NotNull Path extracted) {
+        final String name = extracted.getFileName().toString();
+        final int separator = name.indexOf('-');
+        return separator < 0 ? name : name.substring(0, separator);
+    }
+
+    private static void pruneEmptyDirectories(final @NotNull Path root) throws IOException {
+        final List<Path> directories;
+        try (final Stream<Path> stream = Files.walk(root)) {
+            directories = stream.filter(Files::isDirectory).sorted(Comparator.reverseOrder()).toList();
+        }
+        for (final Path directory : directories) {
+            if (directory.equals(root)) {
+                continue;
+            }
+            try (final Stream<Path> stream = Files.list(directory)) {
+                if (stream.findAny().isPresent()) {
+                    continue;
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private record VersionUsage(String id, Path directory, Instant lastUsed, Set<Path> files, Set<String> natives, boolean readable) {
+
+    }
+
+}
\ No newline at end of file
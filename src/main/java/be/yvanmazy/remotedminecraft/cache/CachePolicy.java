@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.cache;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+public record CachePolicy(@NotNull Duration maxUnused, long maxBytes, @NotNull Set<String> pinned) {
+
+    private static final CachePolicy ORPHANS_ONLY = new CachePolicy(ChronoUnit.FOREVER.getDuration(), Long.MAX_VALUE, Set.of());
+
+    public CachePolicy {
+        Objects.requireNonNull(maxUnused, "maxUnused must not be null");
+        if (maxUnused.isNegative()) {
+            throw new IllegalArgumentException("maxUnused must not be negative");
+        }
+        if (maxBytes < 0L) {
+            throw new IllegalArgumentException("maxBytes must not be negative");
+        }
+        pinned = Set.copyOf(pinned);
+    }
+
+    @Contract(pure = true)
+    public static @NotNull CachePolicy orphansOnly() {
+        return ORPHANS_ONLY;
+    }
+
+    @Contract("_ -> new")
+    public static @NotNull CachePolicy unusedFor(final @NotNull Duration maxUnused) {
+        return ORPHANS_ONLY.withMaxUnused(maxUnused);
+    }
+
+    @Contract("_ -> new")
+    public static @NotNull CachePolicy sizeBudget(final long maxBytes) {
+        return ORPHANS_ONLY.withMaxBytes(maxBytes);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull CachePolicy withMaxUnused(final @NotNull Duration maxUnused) {
+        return new CachePolicy(maxUnused, this.maxBytes, this.pinned);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull CachePolicy withMaxBytes(final long maxBytes) {
+        return new CachePolicy(this.maxUnused, maxBytes, this.pinned);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull CachePolicy pin(final @NotNull String @NotNull ... versions) {
+        final Set<String> pinned = new HashSet<>(this.pinned);
+        pinned.addAll(Arrays.asList(versions));
+        return new CachePolicy(this.maxUnused, this.maxBytes, pinned);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.cache;
+
+import be.yvanmazy.remotedminecraft.util.FileUtil;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+
+public final class ContentStore {
+
+    private static final String SYMBOLIC_LINKS_MARKER = "symbolic-links";
+
+    private final Path root;
+
+    public ContentStore(final @NotNull Path root) {
+        this.root = Objects.requireNonNull(root, "root must not be null").toAbsolutePath();
+    }
+
+    @Contract(pure = true)
+    public @NotNull Path root() {
+        return this.root;
+    }
+
+    @Contract(pure = true)
+    public @NotNull Path resolve(final @NotNull String sha1) {
+        if (sha1.length() < 3) {
+            throw new IllegalArgumentException("Invalid sha1: '" + sha1 + "'");
+        }
+        return this.root.resolve(sha1.substring(0, 2)).resolve(sha1);
+    }
+
+    @Contract(pure = true)
+    public @NotNull Path lockTarget(final @NotNull String sha1) {
+        // Objects share a fixed set of striped locks, one lock file per object would double the inode count of the store
+        return this.root.resolve("locks").resolve(this.resolve(sha1).getParent().getFileName());
+    }
+
+    public boolean contains(final @NotNull String sha1) {
+        return Files.isRegularFile(this.resolve(sha1));
+    }
+
+    public boolean link(final @NotNull String sha1, final @NotNull Path target) throws IOException {
+        final Path object = this.resolve(sha1);
+        if (!Files.isRegularFile(object)) {
+            return false;
+        }
+        FileUtil.link(object, target);
+        if (Files.isSymbolicLink(target)) {
+            this.markSymbolicLinks();
+        }
+        return true;
+    }
+
+    // Cache collection finds unused objects by their link count, which symbolic links do not raise
+    public void markSymbolicLinks() throws IOException {
+        final Path marker = this.root.resolve(SYMBOLIC_LINKS_MARKER);
+        if (Files.exists(marker)) {
+            return;
+        }
+        Files.createDirectories(this.root);
+        try {
+            Files.createFile(marker);
+        } catch (final FileAlreadyExistsException ignored) {
+        }
+    }
+
+    public boolean hasSymbolicLinks() {
+        return Files.exists(this.root.resolve(SYMBOLIC_LINKS_MARKER));
+    }
+
+    public @NotNull Path store(final @NotNull String sha1, final @NotNull Loader loader) throws IOException {
+        final Path object = this.resolve(sha1);
+        Files.createDirectories(object.getParent());
+        final Path temp = Files.createTempFile(object.getParent(), sha1, ".tmp");
+        try {
+            loader.load(temp);
+            FileUtil.moveAtomically(temp, object);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return object;
+    }
+
+    public void adopt(final @NotNull String sha1, final @NotNull Path source) throws IOException {
+        final Path object = this.resolve(sha1);
+        if (Files.exists(object)) {
+            return;
+        }
+        Files.createDirectories(object.getParent());
+        try {
+            Files.createLink(object, source);
+        } catch (final FileAlreadyExistsException ignored) {
+        } catch (final UnsupportedOperationException | IOException e) {
+            this.store(sha1, path -> Files.copy(source, path, StandardCopyOption.REPLACE_EXISTING));
+        }
+    }
+
+    public boolean remove(final @NotNull String sha1) throws IOException {
+        return Files.deleteIfExists(this.resolve(sha1));
+    }
+
+    public boolean removeIfLinked(final @NotNull String sha1, final @NotNull Path linked) throws IOException {
+        final Path object = this.resolve(sha1);
+        if (Files.isRegularFile(object) && Files.exists(linked) && Files.isSameFile(object, linked)) {
+            return Files.deleteIfExists(object);
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    public interface Loader {
+
+        void load(final @NotNull Path path) throws IOException;
+
+    }
+
+}
\ No newline at end of file
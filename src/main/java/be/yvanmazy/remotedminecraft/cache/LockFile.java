@@ -0,0 +1,358 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.cache;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+public final class LockFile implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LockFile.class);
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(10);
+    private static final long MIN_BACKOFF = 10L;
+    private static final long MAX_BACKOFF = 500L;
+    private static final long PID = ProcessHandle.current().pid();
+    // Closing any descriptor of a file drops every lock the process holds on it, so threads of this JVM queue on a
+    // gate and only the thread that owns the gate ever opens the file
+    private static final Map<Path, Gate> GATES = new HashMap<>();
+
+    private final Gate gate;
+    private final boolean shared;
+    private final Path ownerFile;
+    private final boolean stale;
+    private boolean closed;
+
+    private LockFile(final @NotNull Gate gate, final boolean shared, final @Nullable Path ownerFile, final boolean stale) {
+        this.gate = gate;
+        this.shared = shared;
+        this.ownerFile = ownerFile;
+        this.stale = stale;
+    }
+
+    @Contract(pure = true)
+    public static @NotNull Path resolve(final @NotNull Path target) {
+        Objects.requireNonNull(target, "target must not be null");
+        return target.resolveSibling(target.getFileName() + ".lock");
+    }
+
+    public static @NotNull LockFile acquire(final @NotNull Path target) throws IOException {
+        return acquire(target, DEFAULT_TIMEOUT);
+    }
+
+    public static @NotNull LockFile acquire(final @NotNull Path target, final @NotNull Duration timeout) throws IOException {
+        return acquire(target, timeout, false);
+    }
+
+    public static @NotNull LockFile acquireShared(final @NotNull Path target) throws IOException {
+        return acquireShared(target, DEFAULT_TIMEOUT);
+    }
+
+    public static @NotNull LockFile acquireShared(final @NotNull Path target, final @NotNull Duration timeout) throws IOException {
+        return acquire(target, timeout, true);
+    }
+
+    private static @NotNull LockFile acquire(final @NotNull Path target, final @NotNull Duration timeout, final boolean shared)
+            throws IOException {
+        Objects.requireNonNull(timeout, "timeout must not be null");
+        final Path path = resolve(target).toAbsolutePath().normalize();
+        Files.createDirectories(path.getParent());
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        final Gate gate = enter(path);
+        boolean acquired = false;
+        try {
+            synchronized (gate) {
+                while (gate.busy) {
+                    if (shared && gate.shared && gate.holders > 0) {
+                        gate.holders++;
+                        acquired = true;
+                        return new LockFile(gate, true, null, false);
+                    }
+                    await(gate, deadline);
+                }
+                gate.busy = true;
+                gate.shared = shared;
+            }
+            LockFile lockFile = null;
+            try {
+                lockFile = lockChannel(gate, shared, deadline);
+                if (lockFile == null) {
+                    lockFile = lockOwnerFile(gate, shared, deadline);
+                }
+            } finally {
+                synchronized (gate) {
+                    if (lockFile == null) {
+                        gate.busy = false;
+                    }
+                    gate.notifyAll();
+                }
+            }
+            acquired = true;
+            return lockFile;
+        } finally {
+            if (!acquired) {
+                leave(gate);
+            }
+        }
+    }
+
+    private static @Nullable LockFile lockChannel(final @NotNull Gate gate, final boolean shared, final long deadline) throws IOException {
+        final FileChannel channel = FileChannel.open(gate.path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean acquired = false;
+        try {
+            long backoff = MIN_BACKOFF;
+            while (true) {
+                final FileLock lock;
+                try {
+                    lock = channel.tryLock(0L, Long.MAX_VALUE, shared);
+                } catch (final IOException e) {
+                    LOGGER.debug("File locks are not supported for '{}', falling back to an owner file", gate.path, e);
+                    return null;
+                }
+                if (lock != null) {
+                    // Owners clear the file when they release it, an owner left behind died while holding the lock
+                    final String owner = shared ? null : readOwner(channel);
+                    if (owner != null) {
+                        LOGGER.warn("Recovered stale lock '{}' left by process {}", gate.path, owner);
+                    }
+                    if (!shared) {
+                        writeOwner(channel, Long.toString(PID));
+                    }
+                    synchronized (gate) {
+                        gate.channel = channel;
+                        gate.lock = lock;
+                        gate.holders = 1;
+                    }
+                    acquired = true;
+                    return new LockFile(gate, shared, null, owner != null);
+                }
+                if (System.nanoTime() - deadline > 0L) {
+                    throw timeout(gate.path, readOwner(channel));
+                }
+                backoff = pause(gate.path, backoff);
+            }
+        } finally {
+            // Safe to close, the gate guarantees no other lock of this JVM is held on the file
+            if (!acquired) {
+                channel.close();
+            }
+        }
+    }
+
+    private static @NotNull LockFile lockOwnerFile(final @NotNull Gate gate, final boolean shared, final long deadline) throws IOException {
+        final Path ownerFile = gate.path.resolveSibling(gate.path.getFileName() + ".owner");
+        long backoff = MIN_BACKOFF;
+        while (true) {
+            final String owner = readOwner(ownerFile);
+            if (shared) {
+                // Owner files cannot express shared holders, exclusive owners are still honored by waiting on them
+                if (owner == null || !isAlive(owner)) {
+                    return grant(gate, true, null);
+                }
+            } else {
+                try {
+                    Files.writeString(ownerFile, Long.toString(PID), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                    return grant(gate, false, ownerFile);
+                } catch (final FileAlreadyExistsException e) {
+                    if (owner != null && !isAlive(owner)) {
+                        LOGGER.warn("Breaking stale lock '{}' left by process {}", ownerFile, owner);
+                        Files.deleteIfExists(ownerFile);
+                        continue;
+                    }
+                }
+            }
+            if (System.nanoTime() - deadline > 0L) {
+                throw timeout(gate.path, owner);
+            }
+            backoff = pause(gate.path, backoff);
+        }
+    }
+
+    private static @NotNull LockFile grant(final @NotNull Gate gate, final boolean shared, final @Nullable Path ownerFile) {
+        synchronized (gate) {
+            gate.holders = 1;
+        }
+        return new LockFile(gate, shared, ownerFile, false);
+    }
+
+    private static @NotNull Gate enter(final @NotNull Path path) {
+        synchronized (GATES) {
+            final Gate gate = GATES.computeIfAbsent(path, Gate::new);
+            gate.users++;
+            return gate;
+        }
+    }
+
+    private static void leave(final @NotNull Gate gate) {
+        synchronized (GATES) {
+            if (--gate.users == 0) {
+                GATES.remove(gate.path);
+            }
+        }
+    }
+
+    private static void await(final @NotNull Gate gate, final long deadline) throws IOException {
+        final long remaining = deadline - System.nanoTime();
+        if (remaining <= 0L) {
+            throw timeout(gate.path, Long.toString(PID));
+        }
+        try {
+            TimeUnit.NANOSECONDS.timedWait(gate, remaining);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for '" + gate.path + "'");
+        }
+    }
+
+    private static long pause(final @NotNull Path path, final long backoff) throws IOException {
+        try {
+            Thread.sleep(backoff);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for '" + path + "'");
+        }
+        return Math.min(backoff * 2, MAX_BACKOFF);
+    }
+
+    private static @NotNull IOException timeout(final @NotNull Path path, final @Nullable String owner) {
+        return new IOException("Timed out waiting for '" + path + "' held by process " + owner);
+    }
+
+    @Contract(pure = true)
+    public @NotNull Path path() {
+        return this.gate.path;
+    }
+
+    @Contract(pure = true)
+    public boolean isStale() {
+        return this.stale;
+    }
+
+    @Override
+    public void close() throws IOException {
+        final FileChannel channel;
+        final FileLock lock;
+        synchronized (this.gate) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            if (--this.gate.holders > 0) {
+                leave(this.gate);
+                return;
+            }
+            channel = this.gate.channel;
+            lock = this.gate.lock;
+            this.gate.channel = null;
+            this.gate.lock = null;
+        }
+        try {
+            if (this.ownerFile != null) {
+                Files.deleteIfExists(this.ownerFile);
+            } else if (channel != null) {
+                // The file is kept, deleting it would let a waiter lock an unlinked file while a newcomer locks a new one
+                try {
+                    if (!this.shared) {
+                        writeOwner(channel, "");
+                    }
+                    lock.release();
+                } finally {
+                    channel.close();
+                }
+            }
+        } finally {
+            synchronized (this.gate) {
+                this.gate.busy = false;
+                this.gate.notifyAll();
+            }
+            leave(this.gate);
+        }
+    }
+
+    private static @Nullable String readOwner(final @NotNull FileChannel channel) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), 64L));
+        channel.read(buffer, 0L);
+        final String owner = new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII).trim();
+        return owner.isEmpty() ? null : owner;
+    }
+
+    private static @Nullable String readOwner(final @NotNull Path path) {
+        try {
+            final String owner = Files.readString(path, StandardCharsets.US_ASCII).trim();
+            return owner.isEmpty() ? null : owner;
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeOwner(final @NotNull FileChannel channel, final @NotNull String owner) throws IOException {
+        channel.truncate(0L);
+        channel.write(ByteBuffer.wrap(owner.getBytes(StandardCharsets.US_ASCII)), 0L);
+    }
+
+    private static boolean isAlive(final @NotNull String owner) {
+        try {
+            return ProcessHandle.of(Long.parseLong(owner)).map(ProcessHandle::isAlive).orElse(false);
+        } catch (final NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static final class Gate {
+
+        private final Path path;
+        private int users;
+        private boolean busy;
+        private boolean shared;
+        private int holders;
+        private FileChannel channel;
+        private FileLock lock;
+
+        private Gate(final @NotNull Path path) {
+            this.path = path;
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,218 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.cache;
+
+import be.yvanmazy.remotedminecraft.platform.OsType;
+import be.yvanmazy.remotedminecraft.util.FileUtil;
+import be.yvanmazy.remotedminecraft.util.JsonUtil;
+import be.yvanmazy.remotedminecraft.version.Assets;
+import be.yvanmazy.remotedminecraft.version.LaunchTemplate;
+import be.yvanmazy.remotedminecraft.version.VersionEntry;
+import be.yvanmazy.remotedminecraft.version.VersionList;
+import be.yvanmazy.remotedminecraft.version.VersionManifest;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class MetadataCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetadataCache.class);
+    private static final MetadataCache INSTANCE = new MetadataCache();
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    private MetadataCache() {
+    }
+
+    public @NotNull VersionList versionList(final @NotNull Path path) throws IOException {
+        return requireContent(path, this.get(path, VersionList.class, null, file -> {
+            try (final JsonReader reader = JsonUtil.newReader(file)) {
+                return VersionList.read(reader);
+            }
+        }));
+    }
+
+    public @Nullable VersionEntry versionEntry(final @NotNull Path path, final @NotNull String id) throws IOException {
+        Objects.requireNonNull(id, "id must not be null");
+        final VersionList list = VersionList.isAlias(id) ? this.versionList(path) : this.getIfFresh(path, VersionList.class, null);
+        if (list != null) {
+            return list.find(id);
+        }
+        return this.get(path, VersionEntry.class, id, file -> {
+            try (final JsonReader reader = JsonUtil.newReader(file)) {
+                return VersionList.find(reader, id);
+            }
+        });
+    }
+
+    public @NotNull VersionManifest versionManifest(final @NotNull Path path) throws IOException {
+        return requireContent(path, this.get(path, VersionManifest.class, null, file -> JsonUtil.fromJson(file, VersionManifest.class)));
+    }
+
+    public @NotNull LaunchTemplate launchTemplate(final @NotNull Path path) throws IOException {
+        final LaunchTemplate cached = this.getIfFresh(path, LaunchTemplate.class, null);
+        if (cached != null) {
+            return cached;
+        }
+        final LaunchTemplate template = this.loadLaunchTemplate(path);
+        return requireContent(path, this.get(path, LaunchTemplate.class, null, file -> template));
+    }
+
+    public @NotNull Assets assets(final @NotNull Path path) throws IOException {
+        return requireContent(path, this.get(path, Assets.class, null, file -> JsonUtil.fromJson(file, Assets.class)));
+    }
+
+    public void invalidate(final @NotNull Path path) {
+        final Path normalized = path.toAbsolutePath().normalize();
+        this.entries.keySet().removeIf(key -> key.path().equals(normalized));
+    }
+
+    public void clear() {
+        this.entries.clear();
+    }
+
+    private <T> @Nullable T getIfFresh(final Path path, final Class<T> type, final @Nullable String id) throws IOException {
+        final Key key = new Key(path.toAbsolutePath().normalize(), type, id);
+        final Entry entry = this.entries.get(key);
+        if (entry == null || !entry.stamp().equals(FileStamp.read(key.path()))) {
+            return null;
+        }
+        return type.cast(entry.value());
+    }
+
+    private <T> @Nullable T get(final Path path, final Class<T> type, final @Nullable String id, final Parser<T> parser) throws IOException {
+        Objects.requireNonNull(path, "path must not be null");
+        final Key key = new Key(path.toAbsolutePath().normalize(), type, id);
+        final FileStamp stamp = FileStamp.read(key.path());
+        if (stamp == null) {
+            this.entries.remove(key);
+            throw new NoSuchFileException(key.path().toString());
+        }
+        try {
+            final Entry entry = this.entries.compute(key, (k, current) -> {
+                if (current != null && current.stamp().equals(stamp)) {
+                    return current;
+                }
+                try {
+                    return new Entry(stamp, parser.parse(k.path()));
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return type.cast(entry.value());
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // The compiled template is stored next to the version file and reused as long as the version file and the
+    // platform it was compiled for did not change.
+    private @NotNull LaunchTemplate loadLaunchTemplate(final Path path) throws IOException {
+        final Path compiledPath = path.resolveSibling(path.getFileName() + ".launch");
+        final FileStamp stamp = FileStamp.read(path);
+        if (stamp == null) {
+            throw new NoSuchFileException(path.toString());
+        }
+        final String platform = OsType.getCurrentType() + "/" + OsType.getCurrentVersion() + "/" + OsType.getCurrentArch();
+        if (Files.isRegularFile(compiledPath)) {
+            try {
+                final CompiledTemplate compiled = JsonUtil.fromJson(compiledPath, CompiledTemplate.class);
+                if (compiled != null && compiled.matches(stamp, platform)) {
+                    return compiled.template();
+                }
+            } catch (final IOException | JsonParseException e) {
+                LOGGER.debug("Failed to read compiled launch template '{}'", compiledPath, e);
+            }
+        }
+        final LaunchTemplate template = LaunchTemplate.compile(this.versionManifest(path));
+        final CompiledTemplate compiled = new CompiledTemplate(CompiledTemplate.FORMAT, stamp.size(), stamp.modified(), platform, template);
+        // The compiled template only saves work on the next launch, a directory it cannot be written to must not fail this one
+        try {
+            final Path temp = Files.createTempFile(compiledPath.toAbsolutePath().getParent(), compiledPath.getFileName().toString(), ".tmp");
+            try {
+                Files.writeString(temp, JsonUtil.toJson(compiled));
+                FileUtil.moveAtomically(temp, compiledPath);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to write compiled launch template '{}'", compiledPath, e);
+        }
+        return template;
+    }
+
+    private static <T> @NotNull T requireContent(final Path path, final @Nullable T value) {
+        if (value == null) {
+            throw new JsonParseException("Empty metadata file: " + path);
+        }
+        return value;
+    }
+
+    public static @NotNull MetadataCache getInstance() {
+        return INSTANCE;
+    }
+
+    private record Key(Path path, Class<?> type, @Nullable String id) {
+
+    }
+
+    private record Entry(FileStamp stamp, @Nullable Object value) {
+
+    }
+
+    private record CompiledTemplate(int format, long size, long modified, String platform, LaunchTemplate template) {
+
+        private static final int FORMAT = 1;
+
+        private boolean matches(final FileStamp stamp, final String platform) {
+            return this.format == FORMAT
+                    && this.size == stamp.size()
+                    && this.modified == stamp.modified()
+                    && platform.equals(this.platform)
+                    && this.template != null;
+        }
+
+    }
+
+    @FunctionalInterface
+    private interface Parser<T> {
+
+        @Nullable T parse(final @NotNull Path path) throws IOException;
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.cache;
+
+import be.yvanmazy.remotedminecraft.util.FileUtil;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public final class NativesCache {
+
+    private final Path root;
+
+    public NativesCache(final @NotNull Path root) {
+        this.root = Objects.requireNonNull(root, "root must not be null").toAbsolutePath();
+    }
+
+    @Contract(pure = true)
+    public @NotNull Path root() {
+        return this.root;
+    }
+
+    @Contract(pure = true)
+    public @NotNull Path resolve(final @NotNull String sha1, final @NotNull String platform) {
+        return this.root.resolve(sha1 + '-' + platform);
+    }
+
+    public @NotNull Path extract(final @NotNull String sha1,
+                                 final @NotNull String platform,
+                                 final @NotNull Path archive,
+                                 final @NotNull Collection<String> excludes) throws IOException {
+        final Path target = this.resolve(sha1, platform);
+        if (Files.isDirectory(target)) {
+            return target;
+        }
+        Files.createDirectories(this.root);
+        final Path temp = Files.createTempDirectory(this.root, sha1 + '-');
+        try {
+            unzip(archive, temp, excludes);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temp, target);
+            }
+        } catch (final FileSystemException e) {
+            // Another process extracted the same archive first, renaming onto its directory fails on some platforms
+            if (!Files.isDirectory(target)) {
+                throw e;
+            }
+        } finally {
+            deleteRecursively(temp);
+        }
+        return target;
+    }
+
+    // Returns whether any file had to be linked symbolically
+    public boolean linkInto(final @NotNull Path extracted, final @NotNull Path directory) throws IOException {
+        final List<Path> files;
+        try (final Stream<Path> stream = Files.walk(extracted)) {
+            files = stream.filter(Files::isRegularFile).toList();
+        }
+        boolean symbolic = false;
+        for (final Path file : files) {
+            final Path target = directory.resolve(extracted.relativize(file).toString());
+            FileUtil.link(file, target);
+            symbolic |= Files.isSymbolicLink(target);
+        }
+        return symbolic;
+    }
+
+    private static void unzip(final Path archive, final Path directory, final Collection<String> excludes) throws IOException {
+        try (final ZipInputStream in = new ZipInputStream(Files.newInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                if (entry.isDirectory() || isExcluded(entry.getName(), excludes)) {
+                    continue;
+                }
+                final Path path = directory.resolve(entry.getName()).normalize();
+                if (!path.startsWith(directory)) {
+                    throw new IOException("Invalid entry in '" + archive + "': " + entry.getName());
+                }
+                Files.createDirectories(path.getParent());
+                Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private static boolean isExcluded(final String name, final Collection<String> excludes) {
+        for (final String exclude : excludes) {
+            if (name.startsWith(exclude)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void deleteRecursively(final Path directory) throws IOException {
+        if (Files.notExists(directory)) {
+            return;
+        }
+        try (final Stream<Path> stream = Files.walk(directory)) {
+            for (final Path path : stream.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.cache;
+
+import be.yvanmazy.remotedminecraft.util.FileUtil;
+import be.yvanmazy.remotedminecraft.util.JsonUtil;
+import com.google.gson.JsonParseException;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class VerificationIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VerificationIndex.class);
+
+    private final Path file;
+    private final Path root;
+    private final Map<String, Stamp> stamps;
+    private volatile boolean dirty;
+
+    private VerificationIndex(final Path file, final Path root, final Map<String, Stamp> stamps) {
+        this.file = file;
+        this.root = root;
+        this.stamps = stamps;
+    }
+
+    @Contract("_, _ -> new")
+    public static @NotNull VerificationIndex load(final @NotNull Path file, final @NotNull Path root) {
+        Objects.requireNonNull(file, "file must not be null");
+        Objects.requireNonNull(root, "root must not be null");
+        final Map<String, Stamp> stamps = new ConcurrentHashMap<>();
+        if (Files.isRegularFile(file)) {
+            try {
+                final Data data = JsonUtil.fromJson(Files.readString(file), Data.class);
+                if (data != null && data.files() != null) {
+                    data.files().forEach((key, stamp) -> {
+                        if (key != null && stamp != null && stamp.sha1() != null) {
+                            stamps.put(key, stamp);
+                        }
+                    });
+                }
+            } catch (final IOException | JsonParseException e) {
+                LOGGER.warn("Failed to read verification index '{}', all files will be verified", file, e);
+            }
+        }
+        return new VerificationIndex(file, root.toAbsolutePath(), stamps);
+    }
+
+    public boolean isVerified(final @NotNull Path path, final @NotNull String sha1) {
+        final Stamp stamp = this.stamps.get(this.toKey(path));
+        if (stamp == null || !stamp.sha1().equals(sha1)) {
+            return false;
+        }
+        final Stamp current = readStamp(path, sha1);
+        return current != null && current.equals(stamp);
+    }
+
+    public void record(final @NotNull Path path, final @NotNull String sha1) {
+        final Stamp stamp = readStamp(path, sha1);
+        if (stamp == null) {
+            this.invalidate(path);
+        } else if (!stamp.equals(this.stamps.put(this.toKey(path), stamp))) {
+            this.dirty = true;
+        }
+    }
+
+    public void invalidate(final @NotNull Path path) {
+        if (this.stamps.remove(this.toKey(path)) != null) {
+            this.dirty = true;
+        }
+    }
+
+    public void save() throws IOException {
+        if (!this.dirty) {
+            return;
+        }
+        this.dirty = false;
+        final Path parent = this.file.toAbsolutePath().getParent();
+        if (!Files.isDirectory(parent)) {
+            Files.createDirectories(parent);
+        }
+        final Path temp = Files.createTempFile(parent, this.file.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(temp, JsonUtil.toJson(new Data(Map.copyOf(this.stamps))));
+            FileUtil.moveAtomically(temp, this.file);
+        } catch (final IOException e) {
+            this.dirty = true;
+            throw e;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private String toKey(final Path path) {
+        final Path absolute = path.toAbsolutePath();
+        final Path key = absolute.startsWith(this.root) ? this.root.relativize(absolute) : absolute;
+        return key.toString().replace('\\', '/');
+    }
+
+    private static @Nullable Stamp readStamp(final Path path, final String sha1) {
+        try {
+            final FileStamp stamp = FileStamp.read(path);
+            return stamp != null ? new Stamp(stamp.size(), stamp.modified(), stamp.fileKey(), sha1) : null;
+        } catch (final IOException e) {
+            LOGGER.debug("Failed to read attributes of '{}'", path, e);
+            return null;
+        }
+    }
+
+    private record Data(Map<String, Stamp> files) {
+
+    }
+
+    private record Stamp(long size, long modified, @Nullable String fileKey, String sha1) {
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,310 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.cache;
+
+import be.yvanmazy.remotedminecraft.download.ChecksumException;
+import be.yvanmazy.remotedminecraft.util.FileUtil;
+import be.yvanmazy.remotedminecraft.util.HashUtil;
+import be.yvanmazy.remotedminecraft.util.JsonUtil;
+import be.yvanmazy.remotedminecraft.version.Assets;
+import be.yvanmazy.remotedminecraft.version.VersionManifest;
+import com.google.gson.JsonParseException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+public final class VersionBundle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VersionBundle.class);
+    private static final String MANIFEST_ENTRY = "bundle.json";
+    private static final String VERSION_LIST = "versions/version_manifest.json";
+
+    private VersionBundle() throws IllegalAccessException {
+        throw new IllegalAccessException("You cannot instantiate a utility class");
+    }
+
+    public static @NotNull BundleManifest export(final @NotNull Path directory, final @NotNull String versionId, final @NotNull Path bundle)
+            throws IOException {
+        Objects.requireNonNull(directory, "directory must not be null");
+        Objects.requireNonNull(versionId, "versionId must not be null");
+        Objects.requireNonNull(bundle, "bundle must not be null");
+        final Path root = directory.toAbsolutePath().normalize();
+        // Held shared so a collection cannot delete files while they are being packed
+        try (final LockFile ignored = LockFile.acquireShared(CacheCollector.provisioningLock(root))) {
+            final Map<String, String> files = collectFiles(root, versionId);
+            final BundleManifest manifest = new BundleManifest(BundleManifest.FORMAT, versionId, hashFiles(root, versionId, files));
+            write(root, manifest, bundle.toAbsolutePath());
+            LOGGER.debug("Exported version '{}' to '{}' ({} files, {} bytes)", versionId, bundle, manifest.files().size(), manifest.totalSize());
+            return manifest;
+        }
+    }
+
+    public static @NotNull BundleManifest importInto(final @NotNull Path bundle,
+                                                     final @NotNull Path directory,
+                                                     final @Nullable Path sharedCacheDirectory,
+                                                     final @NotNull Executor executor) throws IOException {
+        Objects.requireNonNull(bundle, "bundle must not be null");
+        Objects.requireNonNull(directory, "directory must not be null");
+        Objects.requireNonNull(executor, "executor must not be null");
+        final Path root = directory.toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        final ContentStore contentStore = sharedCacheDirectory != null ? new ContentStore(sharedCacheDirectory) : null;
+        final VerificationIndex index = VerificationIndex.load(root.resolve("verification_index.json"), root);
+        try (final LockFile ignored = LockFile.acquireShared(CacheCollector.provisioningLock(root));
+             final LockFile ignoredStore = contentStore != null ? LockFile.acquireShared(CacheCollector.provisioningLock(contentStore.root())) : null;
+             final ZipInputStream in = new ZipInputStream(new BufferedInputStream(Files.newInputStream(bundle)))) {
+            final BundleManifest manifest = readManifest(bundle, in);
+            final Map<String, BundleManifest.Entry> entries = new HashMap<>();
+            for (final BundleManifest.Entry entry : manifest.files()) {
+                entries.put(entry.path(), entry);
+            }
+            final Map<String, CompletableFuture<Void>> installs = new LinkedHashMap<>();
+            final Set<String> seen = new HashSet<>();
+            int reused = 0;
+            // Entries are inflated one at a time, hashing and moving them into place runs in parallel behind the reader
+            ZipEntry zipEntry;
+            while ((zipEntry = in.getNextEntry()) != null) {
+                final BundleManifest.Entry entry = entries.get(zipEntry.getName());
+                if (entry == null || !seen.add(entry.path())) {
+                    throw new IOException("Unexpected entry '" + zipEntry.getName() + "' in bundle '" + bundle + "'");
+                }
+                final Path target = resolve(root, entry.path());
+                if (index.isVerified(target, entry.sha1()) || (entry.path().equals(VERSION_LIST) && Files.isRegularFile(target))) {
+                    reused++;
+                    continue;
+                }
+                Files.createDirectories(target.getParent());
+                final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+                try {
+                    Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+                } catch (final IOException e) {
+                    Files.deleteIfExists(temp);
+                    throw e;
+                }
+                installs.put(entry.path(), CompletableFuture.runAsync(() -> install(temp, target, entry, index, contentStore), executor));
+            }
+            final List<String> failures = new ArrayList<>();
+            final IOException exception = new IOException("Failed to import bundle '" + bundle + "'");
+            for (final Map.Entry<String, CompletableFuture<Void>> install : installs.entrySet()) {
+                try {
+                    install.getValue().join();
+                } catch (final CompletionException e) {
+                    failures.add(install.getKey());
+                    exception.addSuppressed(e.getCause() instanceof UncheckedIOException unchecked ? unchecked.getCause() : e.getCause());
+                }
+                MetadataCache.getInstance().invalidate(resolve(root, install.getKey()));
+            }
+            index.save();
+            if (seen.size() != entries.size()) {
+                throw new IOException("Bundle '" + bundle + "' is truncated, " + (entries.size() - seen.size()) + " files are missing");
+            }
+            if (!failures.isEmpty()) {
+                LOGGER.warn("{} files of bundle '{}' failed verification: {}", failures.size(), bundle, failures);
+                throw exception;
+            }
+            LOGGER.debug("Imported version '{}' from '{}' ({} files, {} already present)",
+                    manifest.versionId(), bundle, installs.size(), reused);
+            return manifest;
+        }
+    }
+
+    private static @NotNull Map<String, String> collectFiles(final @NotNull Path root, final @NotNull String versionId) throws IOException {
+        final String versionJson = "versions/" + versionId + '/' + versionId + ".json";
+        if (!Files.isRegularFile(root.resolve(versionJson))) {
+            throw new FileNotFoundException("Version '" + versionId + "' is not provisioned in '" + root + "'");
+        }
+        final VersionManifest manifest;
+        try {
+            manifest = MetadataCache.getInstance().versionManifest(root.resolve(versionJson));
+        } catch (final JsonParseException e) {
+            throw new IOException("Failed to read version '" + versionId + "'", e);
+        }
+        // Relative path to expected SHA-1, null when the version does not pin it
+        final Map<String, String> files = new LinkedHashMap<>();
+        if (Files.isRegularFile(root.resolve(VERSION_LIST))) {
+            files.put(VERSION_LIST, null);
+        }
+        files.put(versionJson, null);
+        final var client = manifest.downloads() != null ? manifest.downloads().client() : null;
+        files.put("versions/" + versionId + '/' + versionId + ".jar", client != null ? client.sha1() : null);
+        for (final VersionManifest.Library library : manifest.libraries()) {
+            if (!library.isAllowed() || library.downloads() == null) {
+                continue;
+            }
+            final var artifact = library.downloads().artifact();
+            if (artifact != null) {
+                files.put("libraries/" + artifact.path(), artifact.sha1());
+            }
+            // Natives travel as their classifier jars, the importing node extracts them again for its own platform cache
+            final var nativeArtifact = library.getNativeArtifact();
+            if (nativeArtifact != null) {
+                files.put("libraries/" + nativeArtifact.path(), nativeArtifact.sha1());
+            }
+        }
+        final VersionManifest.AssetIndex assetIndex = manifest.assetIndex();
+        if (assetIndex == null) {
+            return files;
+        }
+        final String indexPath = "assets/indexes/" + assetIndex.id() + ".json";
+        final Path skippedPath = root.resolve(indexPath + ".skipped");
+        final Set<String> skipped = new HashSet<>();
+        if (Files.isRegularFile(skippedPath)) {
+            skipped.addAll(Files.readAllLines(skippedPath));
+        }
+        files.put(indexPath, assetIndex.sha1());
+        if (!skipped.isEmpty()) {
+            files.put(indexPath + ".skipped", null);
+        }
+        final Assets assets = MetadataCache.getInstance().assets(root.resolve(indexPath));
+        for (final Map.Entry<String, Assets.Data> entry : assets.objects().entrySet()) {
+            final String hash = entry.getValue().hash();
+            final String objectPath = "assets/objects/" + hash.substring(0, 2) + '/' + hash;
+            if (skipped.contains(entry.getKey()) && !Files.exists(root.resolve(objectPath))) {
+                continue;
+            }
+            files.put(objectPath, hash);
+        }
+        return files;
+    }
+
+    private static @NotNull List<BundleManifest.Entry> hashFiles(final @NotNull Path root,
+                                                                 final @NotNull String versionId,
+                                                                 final @NotNull Map<String, String> files) throws IOException {
+        try {
+            return files.entrySet().parallelStream().map(file -> {
+                final Path path = root.resolve(file.getKey());
+                try {
+                    if (!Files.isRegularFile(path)) {
+                        throw new FileNotFoundException("'" + file.getKey() + "' is missing, version '" + versionId + "' is not fully provisioned");
+                    }
+                    final String sha1 = HashUtil.hash(path);
+                    if (file.getValue() != null && !file.getValue().equalsIgnoreCase(sha1)) {
+                        throw new IOException("'" + file.getKey() + "' is corrupted: expected " + file.getValue() + " but got " + sha1);
+                    }
+                    return new BundleManifest.Entry(file.getKey(), sha1, Files.size(path));
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).toList();
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void write(final @NotNull Path root, final @NotNull BundleManifest manifest, final @NotNull Path bundle) throws IOException {
+        final Path parent = bundle.getParent();
+        Files.createDirectories(parent);
+        final Path temp = Files.createTempFile(parent, bundle.getFileName().toString(), ".tmp");
+        try {
+            try (final ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                // The manifest goes first so importers can validate entries while streaming
+                out.putNextEntry(new ZipEntry(MANIFEST_ENTRY));
+                out.write(JsonUtil.toJson(manifest).getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+                for (final BundleManifest.Entry entry : manifest.files()) {
+                    // Jars and asset objects are already compressed, deflating them again only costs time on both ends
+                    out.setLevel(entry.path().endsWith(".json") ? Deflater.DEFAULT_COMPRESSION : Deflater.NO_COMPRESSION);
+                    out.putNextEntry(new ZipEntry(entry.path()));
+                    Files.copy(root.resolve(entry.path()), out);
+                    out.closeEntry();
+                }
+            }
+            FileUtil.moveAtomically(temp, bundle);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static @NotNull BundleManifest readManifest(final @NotNull Path bundle, final @NotNull ZipInputStream in) throws IOException {
+        final ZipEntry first = in.getNextEntry();
+        if (first == null || !first.getName().equals(MANIFEST_ENTRY)) {
+            throw new IOException("'" + bundle + "' is not a version bundle");
+        }
+        final BundleManifest manifest;
+        try {
+            manifest = JsonUtil.fromJson(new String(in.readAllBytes(), StandardCharsets.UTF_8), BundleManifest.class);
+        } catch (final JsonParseException e) {
+            throw new IOException("Failed to read manifest of bundle '" + bundle + "'", e);
+        }
+        if (manifest == null || manifest.format() != BundleManifest.FORMAT) {
+            throw new IOException("Unsupported format of bundle '" + bundle + "'");
+        }
+        return manifest;
+    }
+
+    private static void install(final @NotNull Path temp,
+                                final @NotNull Path target,
+                                final @NotNull BundleManifest.Entry entry,
+                                final @NotNull VerificationIndex index,
+                                final @Nullable ContentStore contentStore) {
+        try {
+            final String sha1 = HashUtil.hash(temp);
+            if (!sha1.equalsIgnoreCase(entry.sha1())) {
+                throw new ChecksumException(entry.path(), entry.sha1(), sha1);
+            }
+            FileUtil.moveAtomically(temp, target);
+            index.record(target, entry.sha1());
+            if (contentStore != null && isShareable(entry.path())) {
+                contentStore.adopt(entry.sha1(), target);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (final IOException e) {
+                LOGGER.debug("Failed to delete '{}'", temp, e);
+            }
+        }
+    }
+
+    private static boolean isShareable(final @NotNull String path) {
+        return path.startsWith("libraries/") || path.startsWith("assets/objects/") || path.endsWith(".jar");
+    }
+
+    private static @NotNull Path resolve(final @NotNull Path root, final @NotNull String path) throws IOException {
+        final Path resolved = root.resolve(path).normalize();
+        if (!resolved.startsWith(root) || resolved.equals(root)) {
+            throw new IOException("Bundle entry '" + path + "' escapes '" + root + "'");
+        }
+        return resolved;
+    }
+
+}
\ No newline at end of file
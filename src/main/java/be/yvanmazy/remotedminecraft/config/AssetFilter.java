@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.config;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+public final class AssetFilter {
+
+    public static final AssetFilter ALL = new AssetFilter(List.of(), List.of());
+    // Modern indexes keep every sound, music and record under minecraft/sounds, legacy ones at the root
+    private static final AssetFilter HEADLESS = ALL.exclude("minecraft/sounds/**",
+            "sounds/**",
+            "music/**",
+            "newmusic/**",
+            "records/**",
+            "streaming/**");
+
+    private final List<String> includes;
+    private final List<String> excludes;
+    private final List<Pattern> includePatterns;
+    private final List<Pattern> excludePatterns;
+
+    private AssetFilter(final @NotNull List<String> includes, final @NotNull List<String> excludes) {
+        this.includes = List.copyOf(includes);
+        this.excludes = List.copyOf(excludes);
+        this.includePatterns = this.includes.stream().map(AssetFilter::compile).toList();
+        this.excludePatterns = this.excludes.stream().map(AssetFilter::compile).toList();
+    }
+
+    @Contract(pure = true)
+    public static @NotNull AssetFilter all() {
+        return ALL;
+    }
+
+    @Contract(pure = true)
+    public static @NotNull AssetFilter headless() {
+        return HEADLESS;
+    }
+
+    @Contract("_ -> new")
+    public @NotNull AssetFilter include(final @NotNull String @NotNull ... globs) {
+        return new AssetFilter(concat(this.includes, globs), this.excludes);
+    }
+
+    @Contract("_ -> new")
+    public @NotNull AssetFilter exclude(final @NotNull String @NotNull ... globs) {
+        return new AssetFilter(this.includes, concat(this.excludes, globs));
+    }
+
+    @Contract(pure = true)
+    public boolean accepts(final @NotNull String name) {
+        Objects.requireNonNull(name, "name must not be null");
+        if (!this.includePatterns.isEmpty() && this.includePatterns.stream().noneMatch(pattern -> pattern.matcher(name).matches())) {
+            return false;
+        }
+        return this.excludePatterns.stream().noneMatch(pattern -> pattern.matcher(name).matches());
+    }
+
+    @Contract(pure = true)
+    public boolean isAll() {
+        return this.includes.isEmpty() && this.excludes.isEmpty();
+    }
+
+    @Contract(pure = true)
+    public @NotNull List<String> includes() {
+        return this.includes;
+    }
+
+    @Contract(pure = true)
+    public @NotNull List<String> excludes() {
+        return this.excludes;
+    }
+
+    private static @NotNull List<String> concat(final @NotNull List<String> list, final @NotNull String @NotNull [] globs) {
+        final List<String> result = new ArrayList<>(list);
+        for (final String glob : Objects.requireNonNull(globs, "globs must not be null")) {
+            result.add(Objects.requireNonNull(glob, "glob must not be null"));
+        }
+        return result;
+    }
+
+    // Asset names always use '/', so globs are matched on the raw name rather than through a platform PathMatcher
+    private static @NotNull Pattern compile(final @NotNull String glob) {
+        final StringBuilder regex = new StringBuilder();
+        int start = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            final char c = glob.charAt(i);
+            if (c != '*' && c != '?') {
+                continue;
+            }
+            if (i > start) {
+                regex.append(Pattern.quote(glob.substring(start, i)));
+            }
+            if (c == '?') {
+                regex.append("[^/]");
+            } else if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i++;
+            } else {
+                regex.append("[^/]*");
+            }
+            start = i + 1;
+        }
+        if (start < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(start)));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != this.getClass()) {
+            return false;
+        }
+        final var that = (AssetFilter) obj;
+        return this.includes.equals(that.includes) && this.excludes.equals(that.excludes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.includes, this.excludes);
+    }
+
+    @Override
+    public String toString() {
+        return "AssetFilter[" + "includes=" + this.includes + ", excludes=" + this.excludes + ']';
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.config;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public enum JvmProfile {
+
+    DEFAULT,
+    LEAN_BOT,
+    THROUGHPUT;
+
+    private static final int MIN_HEAP = 64;
+    private static final int LEAN_INITIAL_HEAP = 128;
+
+    @Contract(pure = true)
+    public @NotNull List<String> arguments(final int memoryBudget) {
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("memoryBudget must not be negative");
+        }
+        // The heap gets three quarters of the budget, the rest is left for metaspace, code cache and native memory
+        final int heap = memoryBudget > 0 ? Math.max(MIN_HEAP, memoryBudget / 4 * 3) : 0;
+        final List<String> arguments = new ArrayList<>();
+        switch (this) {
+            case DEFAULT -> {
+                if (heap > 0) {
+                    arguments.add("-Xmx" + heap + "m");
+                }
+            }
+            case LEAN_BOT -> {
+                if (heap > 0) {
+                    arguments.add("-Xms" + Math.min(heap, LEAN_INITIAL_HEAP) + "m");
+                    arguments.add("-Xmx" + heap + "m");
+                }
+                arguments.add("-XX:+UseSerialGC");
+                arguments.add("-XX:MinHeapFreeRatio=10");
+                arguments.add("-XX:MaxHeapFreeRatio=30");
+                arguments.add("-XX:TieredStopAtLevel=1");
+                arguments.add("-XX:CICompilerCount=1");
+                arguments.add("-XX:ReservedCodeCacheSize=64m");
+            }
+            case THROUGHPUT -> {
+                if (heap > 0) {
+                    arguments.add("-Xms" + heap + "m");
+                    arguments.add("-Xmx" + heap + "m");
+                }
+                arguments.add("-XX:+UseG1GC");
+                arguments.add("-XX:+UseStringDeduplication");
+                arguments.add("-XX:+ParallelRefProcEnabled");
+                arguments.add("-XX:MaxGCPauseMillis=50");
+            }
+        }
+        return List.copyOf(arguments);
+    }
+
+}
\ No newline at end of file
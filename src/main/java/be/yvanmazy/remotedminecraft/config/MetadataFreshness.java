@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.config;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+public record MetadataFreshness(@NotNull Mode mode, @NotNull Duration maxAge) {
+
+    public static final MetadataFreshness DEFAULT = new MetadataFreshness(Mode.MAX_AGE, ChronoUnit.FOREVER.getDuration());
+    private static final MetadataFreshness OFFLINE = new MetadataFreshness(Mode.OFFLINE, ChronoUnit.FOREVER.getDuration());
+    private static final MetadataFreshness ALWAYS_CHECK = new MetadataFreshness(Mode.ALWAYS_CHECK, Duration.ZERO);
+
+    public MetadataFreshness {
+        Objects.requireNonNull(mode, "mode must not be null");
+        Objects.requireNonNull(maxAge, "maxAge must not be null");
+        if (maxAge.isNegative()) {
+            throw new IllegalArgumentException("maxAge must not be negative");
+        }
+    }
+
+    @Contract("_ -> new")
+    public static @NotNull MetadataFreshness maxAge(final @NotNull Duration maxAge) {
+        return new MetadataFreshness(Mode.MAX_AGE, maxAge);
+    }
+
+    @Contract(pure = true)
+    public static @NotNull MetadataFreshness offline() {
+        return OFFLINE;
+    }
+
+    @Contract(pure = true)
+    public static @NotNull MetadataFreshness alwaysCheck() {
+        return ALWAYS_CHECK;
+    }
+
+    @Contract(pure = true)
+    public boolean isOffline() {
+        return this.mode == Mode.OFFLINE;
+    }
+
+    public boolean isStale(final @NotNull Instant lastChecked) {
+        return switch (this.mode) {
+            case OFFLINE -> false;
+            case ALWAYS_CHECK -> true;
+            case MAX_AGE -> Duration.between(lastChecked, Instant.now()).compareTo(this.maxAge) > 0;
+        };
+    }
+
+    public enum Mode {
+
+        MAX_AGE,
+        ALWAYS_CHECK,
+        OFFLINE
+
+    }
+
+}
\ No newline at end of file
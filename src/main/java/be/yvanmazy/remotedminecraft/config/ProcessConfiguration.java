@@ -25,6 +25,9 @@
 package be.yvanmazy.remotedminecraft.config;
 
 import be.yvanmazy.remotedminecraft.auth.Auth;
+import be.yvanmazy.remotedminecraft.download.DownloadEndpoints;
+import be.yvanmazy.remotedminecraft.download.DownloadTransport;
+import be.yvanmazy.remotedminecraft.event.ProvisioningListener;
 import be.yvanmazy.remotedminecraft.util.FileUtil;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -32,6 +35,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.UnaryOperator;
 
 public interface ProcessConfiguration {
@@ -74,6 +78,45 @@ public interface ProcessConfiguration {
     @Contract(pure = true)
     UnaryOperator<ProcessBuilder> processOperator();
 
+    @Contract(pure = true)
+    int downloadConcurrency();
+
+    @Contract(pure = true)
+    @NotNull DownloadTransport downloadTransport();
+
+    @Contract(pure = true)
+    @NotNull DownloadEndpoints downloadEndpoints();
+
+    @Contract(pure = true)
+    @Nullable Path sharedCacheDirectory();
+
+    @Contract(pure = true)
+    boolean fullVerification();
+
+    @Contract(pure = true)
+    @NotNull MetadataFreshness metadataFreshness();
+
+    @Contract(pure = true)
+    @Nullable Executor provisioningExecutor();
+
+    @Contract(pure = true)
+    boolean argumentFile();
+
+    @Contract(pure = true)
+    boolean classDataSharing();
+
+    @Contract(pure = true)
+    @NotNull JvmProfile jvmProfile();
+
+    @Contract(pure = true)
+    int memoryBudget();
+
+    @Contract(pure = true)
+    @NotNull List<ProvisioningListener> listeners();
+
+    @Contract(pure = true)
+    @NotNull AssetFilter assetFilter();
+
     interface Builder {
 
         @Contract("_ -> this")
@@ -128,6 +171,65 @@ public interface ProcessConfiguration {
         @Contract("_ -> this")
         @NotNull Builder processOperator(final @Nullable UnaryOperator<ProcessBuilder> operator);
 
+        @Contract("_ -> this")
+        @NotNull Builder downloadConcurrency(final int downloadConcurrency);
+
+        @Contract("_ -> this")
+        @NotNull Builder downloadTransport(final @Nullable DownloadTransport downloadTransport);
+
+        @Contract("_ -> this")
+        default @NotNull Builder offlineMirror(final @NotNull Path mirror) {
+            return this.downloadTransport(DownloadTransport.mirror(mirror));
+        }
+
+        @Contract("_ -> this")
+        @NotNull Builder downloadEndpoints(final @Nullable DownloadEndpoints downloadEndpoints);
+
+        @Contract("_ -> this")
+        @NotNull Builder sharedCacheDirectory(final @Nullable Path sharedCacheDirectory);
+
+        @Contract("-> this")
+        default @NotNull Builder fullVerification() {
+            return this.fullVerification(true);
+        }
+
+        @Contract("_ -> this")
+        @NotNull Builder fullVerification(final boolean fullVerification);
+
+        @Contract("_ -> this")
+        @NotNull Builder metadataFreshness(final @Nullable MetadataFreshness metadataFreshness);
+
+        @Contract("_ -> this")
+        @NotNull Builder provisioningExecutor(final @Nullable Executor provisioningExecutor);
+
+        @Contract("-> this")
+        default @NotNull Builder argumentFile() {
+            return this.argumentFile(true);
+        }
+
+        @Contract("_ -> this")
+        @NotNull Builder argumentFile(final boolean argumentFile);
+
+        @Contract("-> this")
+        default @NotNull Builder classDataSharing() {
+            return this.classDataSharing(true);
+        }
+
+        @Contract("_ -> this")
+        @NotNull Builder classDataSharing(final boolean classDataSharing);
+
+        @Contract("_ -> this")
+        @NotNull Builder jvmProfile(final @Nullable JvmProfile jvmProfile);
+
+        @Contract("_ -> this")
+        @NotNull Builder memoryBudget(final int megabytes);
+
+        @Contract("_ -> this")
+        @NotNull Builder listener(final @NotNull ProvisioningListener listener);
+
+        @Contract("_ -> this")
+        @NotNull Builder assetFilter(final @Nullable AssetFilter assetFilter);
+
         @Contract("-> new")
         @NotNull ProcessConfiguration build();
 
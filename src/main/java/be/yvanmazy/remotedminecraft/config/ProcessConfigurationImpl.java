@@ -25,6 +25,9 @@
 package be.yvanmazy.remotedminecraft.config;
 
 import be.yvanmazy.remotedminecraft.auth.Auth;
+import be.yvanmazy.remotedminecraft.download.DownloadEndpoints;
+import be.yvanmazy.remotedminecraft.download.DownloadTransport;
+import be.yvanmazy.remotedminecraft.event.ProvisioningListener;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -33,12 +36,18 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.function.UnaryOperator;
 
 record ProcessConfigurationImpl(String version, Auth authentication, Path processJavaPath, List<String> jvmArguments,
                                 List<String> gameArguments, List<Path> classpath, String processMainClass, Path processDirectory,
-                                boolean independent, boolean inheritIO,
-                                UnaryOperator<ProcessBuilder> processOperator) implements ProcessConfiguration {
+                                boolean independent, boolean inheritIO, UnaryOperator<ProcessBuilder> processOperator,
+                                int downloadConcurrency, DownloadTransport downloadTransport,
+                                DownloadEndpoints downloadEndpoints, Path sharedCacheDirectory,
+                                boolean fullVerification, MetadataFreshness metadataFreshness,
+                                Executor provisioningExecutor, boolean argumentFile,
+                                boolean classDataSharing, JvmProfile jvmProfile, int memoryBudget,
+                                List<ProvisioningListener> listeners, AssetFilter assetFilter) implements ProcessConfiguration {
 
     private ProcessConfigurationImpl(final Builder builder) {
         this(builder.version,
@@ -51,7 +60,20 @@ record ProcessConfigurationImpl(String version, Auth authentication, Path proces
                 builder.processDirectory,
                 builder.independent,
                 builder.inheritIO,
-                builder.processOperator);
+                builder.processOperator,
+                builder.downloadConcurrency,
+                builder.downloadTransport,
+                builder.downloadEndpoints,
+                builder.sharedCacheDirectory,
+                builder.fullVerification,
+                builder.metadataFreshness,
+                builder.provisioningExecutor,
+                builder.argumentFile,
+                builder.classDataSharing,
+                builder.jvmProfile,
+                builder.memoryBudget,
+                builder.listeners,
+                builder.assetFilter);
     }
 
     ProcessConfigurationImpl {
@@ -72,16 +94,40 @@ record ProcessConfigurationImpl(String version, Auth authentication, Path proces
         jvmArguments = jvmArguments != null ? List.copyOf(jvmArguments) : List.of();
         gameArguments = gameArguments != null ? List.copyOf(gameArguments) : List.of();
         classpath = classpath != null ? List.copyOf(classpath) : List.of();
+        listeners = listeners != null ? List.copyOf(listeners) : List.of();
         if (processMainClass == null) {
             processMainClass = "";
         }
         if (processDirectory == null) {
             processDirectory = Path.of("");
         }
+        if (downloadConcurrency < 1) {
+            throw new IllegalArgumentException("downloadConcurrency must be greater than 0");
+        }
+        if (downloadTransport == null) {
+            downloadTransport = DownloadTransport.http();
+        }
+        if (downloadEndpoints == null) {
+            downloadEndpoints = DownloadEndpoints.DEFAULT;
+        }
+        if (metadataFreshness == null) {
+            metadataFreshness = MetadataFreshness.DEFAULT;
+        }
+        if (jvmProfile == null) {
+            jvmProfile = JvmProfile.DEFAULT;
+        }
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("memoryBudget must not be negative");
+        }
+        if (assetFilter == null) {
+            assetFilter = AssetFilter.ALL;
+        }
     }
 
     static class Builder implements ProcessConfiguration.Builder {
 
+        private static final int DEFAULT_DOWNLOAD_CONCURRENCY = 8;
+
         private String version;
         private Auth authentication;
         private Path processJavaPath;
@@ -93,6 +139,19 @@ record ProcessConfigurationImpl(String version, Auth authentication, Path proces
         private boolean independent;
         private boolean inheritIO = true;
         private UnaryOperator<ProcessBuilder> processOperator;
+        private int downloadConcurrency = DEFAULT_DOWNLOAD_CONCURRENCY;
+        private DownloadTransport downloadTransport;
+        private DownloadEndpoints downloadEndpoints;
+        private Path sharedCacheDirectory;
+        private boolean fullVerification;
+        private MetadataFreshness metadataFreshness;
+        private Executor provisioningExecutor;
+        private boolean argumentFile;
+        private boolean classDataSharing;
+        private JvmProfile jvmProfile;
+        private int memoryBudget;
+        private final List<ProvisioningListener> listeners = new ArrayList<>();
+        private AssetFilter assetFilter;
 
         @Override
         public ProcessConfiguration.@NotNull Builder version(final @NotNull String version) {
@@ -167,6 +226,90 @@ record ProcessConfigurationImpl(String version, Auth authentication, Path proces
             return this;
         }
 
+        @Override
+        public ProcessConfiguration.@NotNull Builder downloadConcurrency(final int downloadConcurrency) {
+            if (downloadConcurrency < 1) {
+                throw new IllegalArgumentException("downloadConcurrency must be greater than 0");
+            }
+            this.downloadConcurrency = downloadConcurrency;
+            return this;
+        }
+
+        @Override
+        public ProcessConfiguration.@NotNull Builder downloadTransport(final @Nullable DownloadTransport downloadTransport) {
+            this.downloadTransport = downloadTransport;
+            return this;
+        }
+
+        @Override
+        public ProcessConfiguration.@NotNull Builder downloadEndpoints(final @Nullable DownloadEndpoints downloadEndpoints) {
+            this.downloadEndpoints = downloadEndpoints;
+            return this;
+        }
+
+        @Override
+        public ProcessConfiguration.@NotNull Builder sharedCacheDirectory(final @Nullable Path sharedCacheDirectory) {
+            this.sharedCacheDirectory = sharedCacheDirectory;
+            return this;
+        }
+
+        @Override
+        public ProcessConfiguration.@NotNull Builder fullVerification(final boolean fullVerification) {
+            this.fullVerification = fullVerification;
+            return this;
+        }
+
+        @Override
+        public ProcessConfiguration.@NotNull Builder metadataFreshness(final @Nullable MetadataFreshness metadataFreshness) {
+            this.metadataFreshness = metadataFreshness;
+            return this;
+        }
+
+        @Override
+        public ProcessConfiguration.@NotNull Builder provisioningExecutor(final @Nullable Executor provisioningExecutor) {
+            this.provisioningExecutor = provisioningExecutor;
+            return this;
+        }
+
+        @Override
+        public ProcessConfiguration.@NotNull Builder argumentFile(final boolean argumentFile) {
+            this.argumentFile = argumentFile;
+            return this;
+        }
+
+        @Override
+        public ProcessConfiguration.@NotNull Builder classDataSharing(final boolean classDataSharing) {
+            this.classDataSharing = classDataSharing;
+            return this;
+        }
+
+        @Override
+        public ProcessConfiguration.@NotNull Builder jvmProfile(final @Nullable JvmProfile jvmProfile) {
+            this.jvmProfile = jvmProfile;
+            return this;
+        }
+
+        @Override
+        public ProcessConfiguration.@NotNull Builder memoryBudget(final int megabytes) {
+            if (megabytes < 0) {
+                throw new IllegalArgumentException("memoryBudget must not be negative");
+            }
+            this.memoryBudget = megabytes;
+            return this;
+        }
+
+        @Override
+        public ProcessConfiguration.@NotNull Builder listener(final @NotNull ProvisioningListener listener) {
+            this.listeners.add(Objects.requireNonNull(listener, "listener must not be null"));
+            return this;
+        }
+
+        @Override
+        public ProcessConfiguration.@NotNull Builder assetFilter(final @Nullable AssetFilter assetFilter) {
+            this.assetFilter = assetFilter;
+            return this;
+        }
+
         @Override
         public @NotNull ProcessConfiguration build() {
             return new ProcessConfigurationImpl(this);
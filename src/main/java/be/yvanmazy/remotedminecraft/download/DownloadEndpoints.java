@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.download;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+public record DownloadEndpoints(@NotNull String versionManifest, @NotNull String assets, @NotNull String libraries,
+                                @NotNull String metadata, @NotNull String client) {
+
+    private static final String DEFAULT_METADATA = "https://piston-meta.mojang.com/";
+    private static final String DEFAULT_CLIENT = "https://piston-data.mojang.com/";
+    // Older version lists still point at the hosts that preceded piston
+    private static final String LEGACY_METADATA = "https://launchermeta.mojang.com/";
+    private static final String LEGACY_CLIENT = "https://launcher.mojang.com/";
+
+    public static final DownloadEndpoints DEFAULT = new DownloadEndpoints("https://launchermeta.mojang.com/mc/game/version_manifest.json",
+            "https://resources.download.minecraft.net/",
+            "https://libraries.minecraft.net/",
+            DEFAULT_METADATA,
+            DEFAULT_CLIENT);
+
+    public DownloadEndpoints {
+        Objects.requireNonNull(versionManifest, "versionManifest must not be null");
+        Objects.requireNonNull(assets, "assets must not be null");
+        Objects.requireNonNull(libraries, "libraries must not be null");
+        Objects.requireNonNull(metadata, "metadata must not be null");
+        Objects.requireNonNull(client, "client must not be null");
+        assets = withTrailingSlash(assets);
+        libraries = withTrailingSlash(libraries);
+        metadata = withTrailingSlash(metadata);
+        client = withTrailingSlash(client);
+    }
+
+    public DownloadEndpoints(final @NotNull String versionManifest, final @NotNull String assets, final @NotNull String libraries) {
+        this(versionManifest, assets, libraries, DEFAULT_METADATA, DEFAULT_CLIENT);
+    }
+
+    public @NotNull String asset(final @NotNull String hash) {
+        return this.assets + hash.substring(0, 2) + '/' + hash;
+    }
+
+    public @NotNull String library(final @NotNull String url) {
+        return rebase(url, this.libraries, DEFAULT.libraries);
+    }
+
+    public @NotNull String metadata(final @NotNull String url) {
+        return rebase(url, this.metadata, DEFAULT_METADATA, LEGACY_METADATA);
+    }
+
+    public @NotNull String client(final @NotNull String url) {
+        return rebase(url, this.client, DEFAULT_CLIENT, LEGACY_CLIENT);
+    }
+
+    private static String rebase(final String url, final String base, final String... defaults) {
+        if (base.equals(defaults[0])) {
+            return url;
+        }
+        for (final String defaultBase : defaults) {
+            if (url.startsWith(defaultBase)) {
+                return base + url.substring(defaultBase.length());
+            }
+        }
+        return url;
+    }
+
+    private static String withTrailingSlash(final String url) {
+        return url.endsWith("/") ? url : url + '/';
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.download;
+
+import be.yvanmazy.remotedminecraft.util.FileUtil;
+import be.yvanmazy.remotedminecraft.util.HashUtil;
+import be.yvanmazy.remotedminecraft.util.JsonUtil;
+import com.google.gson.JsonParseException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Objects;
+
+final class DownloadSupport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DownloadSupport.class);
+
+    private DownloadSupport() throws IllegalAccessException {
+        throw new IllegalAccessException("You cannot instantiate a utility class");
+    }
+
+    static long publish(final @NotNull InputStream in,
+                        final @NotNull String url,
+                        final @NotNull Path path,
+                        final @Nullable String sha1) throws IOException {
+        final Path parent = path.toAbsolutePath().getParent();
+        if (!Files.isDirectory(parent)) {
+            Files.createDirectories(parent);
+        }
+        final Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".part");
+        try {
+            final MessageDigest digest = sha1 != null ? HashUtil.newDigest() : null;
+            final long size;
+            try (in; final OutputStream out = Files.newOutputStream(temp)) {
+                size = HashUtil.copy(in, out, digest);
+            }
+            if (digest != null) {
+                final String actual = HashUtil.toHex(digest.digest());
+                if (!actual.equalsIgnoreCase(sha1)) {
+                    throw new ChecksumException(url, sha1, actual);
+                }
+            }
+            FileUtil.moveAtomically(temp, path);
+            return size;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static long publishResumable(final @NotNull DownloadTransport transport,
+                                 final @NotNull String url,
+                                 final @NotNull Path path,
+                                 final @Nullable String sha1) throws IOException {
+        final Path parent = path.toAbsolutePath().getParent();
+        if (!Files.isDirectory(parent)) {
+            Files.createDirectories(parent);
+        }
+        final Path partial = path.resolveSibling(path.getFileName() + ".part");
+        final Path progressPath = path.resolveSibling(path.getFileName() + ".part.json");
+        final Progress progress = readProgress(progressPath);
+        long offset = 0L;
+        if (progress != null && progress.url().equals(url) && Objects.equals(progress.sha1(), sha1) && Files.isRegularFile(partial)) {
+            offset = Files.size(partial);
+        }
+
+        final RangeResponse response = transport.open(url, offset, progress != null ? progress.validator() : null);
+        final MessageDigest digest = sha1 != null ? HashUtil.newDigest() : null;
+        final long start = response.offset();
+        if (start > 0L) {
+            LOGGER.debug("Resuming download of '{}' at {} bytes", url, start);
+            if (digest != null) {
+                HashUtil.update(digest, partial);
+            }
+        } else {
+            Files.deleteIfExists(partial);
+            Files.writeString(progressPath, JsonUtil.toJson(new Progress(url, sha1, response.validator())));
+        }
+
+        final long transferred;
+        try (final InputStream in = response.body();
+             final OutputStream out = Files.newOutputStream(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            transferred = HashUtil.copy(in, out, digest);
+        }
+        if (digest != null) {
+            final String actual = HashUtil.toHex(digest.digest());
+            if (!actual.equalsIgnoreCase(sha1)) {
+                Files.deleteIfExists(partial);
+                Files.deleteIfExists(progressPath);
+                throw new ChecksumException(url, sha1, actual);
+            }
+        }
+        FileUtil.moveAtomically(partial, path);
+        Files.deleteIfExists(progressPath);
+        return transferred;
+    }
+
+    private static @Nullable Progress readProgress(final Path path) {
+        if (Files.notExists(path)) {
+            return null;
+        }
+        try {
+            final Progress progress = JsonUtil.fromJson(path, Progress.class);
+            return progress != null && progress.url() != null ? progress : null;
+        } catch (final IOException | JsonParseException e) {
+            LOGGER.debug("Failed to read download progress '{}'", path, e);
+            return null;
+        }
+    }
+
+    private record Progress(String url, @Nullable String sha1, @Nullable String validator) {
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.download;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+
+public interface DownloadTransport {
+
+    @Contract(pure = true)
+    static @NotNull DownloadTransport http() {
+        return HttpDownloadTransport.getDefault();
+    }
+
+    @Contract("_, _ -> new")
+    static @NotNull DownloadTransport http(final @NotNull Duration connectTimeout, final @NotNull Duration requestTimeout) {
+        return new HttpDownloadTransport(connectTimeout, requestTimeout);
+    }
+
+    @Contract("_ -> new")
+    static @NotNull DownloadTransport mirror(final @NotNull Path root) {
+        return new MirrorDownloadTransport(root);
+    }
+
+    @NotNull InputStream open(final @NotNull String url) throws IOException;
+
+    default long download(final @NotNull String url, final @NotNull Path path) throws IOException {
+        return this.download(url, path, null);
+    }
+
+    default long download(final @NotNull String url, final @NotNull Path path, final @Nullable String sha1) throws IOException {
+        return DownloadSupport.publish(this.open(url), url, path, sha1);
+    }
+
+    default @NotNull RangeResponse open(final @NotNull String url,
+                                        final long offset,
+                                        final @Nullable String validator) throws IOException {
+        return new RangeResponse(this.open(url), 0L, null);
+    }
+
+    default long downloadResumable(final @NotNull String url, final @NotNull Path path, final @Nullable String sha1) throws IOException {
+        return DownloadSupport.publishResumable(this, url, path, sha1);
+    }
+
+    default @NotNull RevalidationResult downloadIfModified(final @NotNull String url,
+                                                           final @NotNull Path path,
+                                                           final @Nullable String etag,
+                                                           final @Nullable String lastModified) throws IOException {
+        final long bytes = this.download(url, path);
+        return new RevalidationResult(true, null, null, bytes);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.download;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+
+final class HttpDownloadTransport implements DownloadTransport {
+
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10L);
+    private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30L);
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+
+    HttpDownloadTransport(final @NotNull Duration connectTimeout, final @NotNull Duration requestTimeout) {
+        Objects.requireNonNull(connectTimeout, "connectTimeout must not be null");
+        this.requestTimeout = Objects.requireNonNull(requestTimeout, "requestTimeout must not be null");
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(connectTimeout)
+                .build();
+    }
+
+    @Override
+    public @NotNull InputStream open(final @NotNull String url) throws IOException {
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(this.requestTimeout).GET().build();
+        return checkStatus(this.send(request), url).body();
+    }
+
+    @Override
+    public @NotNull RangeResponse open(final @NotNull String url,
+                                       final long offset,
+                                       final @Nullable String validator) throws IOException {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).timeout(this.requestTimeout).GET();
+        if (offset > 0L) {
+            builder.header("Range", "bytes=" + offset + '-');
+            if (validator != null) {
+                builder.header("If-Range", validator);
+            }
+        }
+        final HttpResponse<InputStream> response = this.send(builder.build());
+        if (response.statusCode() == 416) {
+            response.body().close();
+            return this.open(url, 0L, null);
+        }
+        checkStatus(response, url);
+        final HttpHeaders headers = response.headers();
+        final String newValidator = headers.firstValue("ETag").or(() -> headers.firstValue("Last-Modified")).orElse(null);
+        final boolean partial = response.statusCode() == 206 &&
+                headers.firstValue("Content-Range").map(range -> range.startsWith("bytes " + offset + '-')).orElse(false);
+        if (response.statusCode() == 206 && !partial) {
+            response.body().close();
+            return this.open(url, 0L, null);
+        }
+        return new RangeResponse(response.body(), partial ? offset : 0L, newValidator);
+    }
+
+    @Override
+    public @NotNull RevalidationResult downloadIfModified(final @NotNull String url,
+                                                          final @NotNull Path path,
+                                                          final @Nullable String etag,
+                                                          final @Nullable String lastModified) throws IOException {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).timeout(this.requestTimeout).GET();
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            builder.header("If-Modified-Since", lastModified);
+        }
+        final HttpResponse<InputStream> response = this.send(builder.build());
+        if (response.statusCode() == 304) {
+            response.body().close();
+            return RevalidationResult.notModified(etag, lastModified);
+        }
+        final long bytes = DownloadSupport.publish(checkStatus(response, url).body(), url, path, null);
+        final HttpHeaders headers = response.headers();
+        return new RevalidationResult(true, headers.firstValue("ETag").orElse(null), headers.firstValue("Last-Modified").orElse(null), bytes);
+    }
+
+    private static HttpResponse<InputStream> checkStatus(final HttpResponse<InputStream> response, final String url) throws IOException {
+        final int status = response.statusCode();
+        if (status == 404 || status == 410) {
+            response.body().close();
+            throw new FileNotFoundException("'" + url + "' was not found (status code " + status + ")");
+        }
+        if (status < 200 || status >= 300) {
+            response.body().close();
+            throw new IOException("Unexpected status code " + status + " for '" + url + "'");
+        }
+        return response;
+    }
+
+    private HttpResponse<InputStream> send(final HttpRequest request) throws IOException {
+        try {
+            return this.client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while requesting '" + request.uri() + "'");
+        }
+    }
+
+    static @NotNull HttpDownloadTransport getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static final class DefaultHolder {
+
+        private static final HttpDownloadTransport INSTANCE = new HttpDownloadTransport(DEFAULT_CONNECT_TIMEOUT, DEFAULT_REQUEST_TIMEOUT);
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.download;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+final class MirrorDownloadTransport implements DownloadTransport {
+
+    private final Path root;
+
+    MirrorDownloadTransport(final @NotNull Path root) {
+        this.root = Objects.requireNonNull(root, "root must not be null").toAbsolutePath().normalize();
+    }
+
+    @Override
+    public @NotNull InputStream open(final @NotNull String url) throws IOException {
+        return Files.newInputStream(this.resolve(url));
+    }
+
+    @Override
+    public @NotNull RangeResponse open(final @NotNull String url,
+                                       final long offset,
+                                       final @Nullable String validator) throws IOException {
+        final Path path = this.resolve(url);
+        final String lastModified = Files.getLastModifiedTime(path).toString();
+        final InputStream in = Files.newInputStream(path);
+        if (offset > 0L && offset <= Files.size(path) && lastModified.equals(validator)) {
+            try {
+                in.skipNBytes(offset);
+            } catch (final IOException e) {
+                in.close();
+                throw e;
+            }
+            return new RangeResponse(in, offset, lastModified);
+        }
+        return new RangeResponse(in, 0L, lastModified);
+    }
+
+    @Override
+    public @NotNull RevalidationResult downloadIfModified(final @NotNull String url,
+                                                          final @NotNull Path path,
+                                                          final @Nullable String etag,
+                                                          final @Nullable String lastModified) throws IOException {
+        final String current = Files.getLastModifiedTime(this.resolve(url)).toString();
+        if (current.equals(lastModified) && Files.isRegularFile(path)) {
+            return RevalidationResult.notModified(etag, lastModified);
+        }
+        final long bytes = this.download(url, path);
+        return new RevalidationResult(true, null, current, bytes);
+    }
+
+    private @NotNull Path resolve(final @NotNull String url) throws IOException {
+        final URI uri = URI.create(url);
+        if (uri.getHost() == null || uri.getPath() == null) {
+            throw new FileNotFoundException("Unsupported url for mirror '" + this.root + "': " + url);
+        }
+        final Path path = this.root.resolve(uri.getHost()).resolve(uri.getPath().replaceFirst("^/+", "")).normalize();
+        if (!path.startsWith(this.root)) {
+            throw new FileNotFoundException("Url escapes mirror '" + this.root + "': " + url);
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new FileNotFoundException("'" + url + "' is not available in mirror '" + this.root + "' (expected " + path + ")");
+        }
+        return path;
+    }
+
+}
\ No newline at end of file
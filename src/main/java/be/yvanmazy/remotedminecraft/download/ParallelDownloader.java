@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.download;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public final class ParallelDownloader {
+
+    private final Executor executor;
+    private final int concurrency;
+    private final Fetcher fetcher;
+
+    public ParallelDownloader(final @NotNull Executor executor, final int concurrency, final @NotNull Fetcher fetcher) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be greater than 0");
+        }
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
+        this.concurrency = concurrency;
+        this.fetcher = Objects.requireNonNull(fetcher, "fetcher must not be null");
+    }
+
+    public @NotNull DownloadReport download(final @NotNull Collection<DownloadTask> tasks) throws IOException {
+        try {
+            return this.downloadAsync(tasks).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while downloading");
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof final IOException exception) {
+                throw exception;
+            } else if (cause instanceof final RuntimeException exception) {
+                throw exception;
+            } else if (cause instanceof final Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    public @NotNull CompletableFuture<DownloadReport> downloadAsync(final @NotNull Collection<DownloadTask> tasks) {
+        Objects.requireNonNull(tasks, "tasks must not be null");
+        if (tasks.isEmpty()) {
+            return CompletableFuture.completedFuture(DownloadReport.EMPTY);
+        }
+
+        final int workers = Math.min(this.concurrency, tasks.size());
+        final Batch batch = new Batch(new ConcurrentLinkedQueue<>(tasks), workers);
+        for (int i = 0; i < workers; i++) {
+            this.schedule(batch);
+        }
+        return batch.future;
+    }
+
+    private void schedule(final Batch batch) {
+        try {
+            this.executor.execute(() -> this.runNext(batch));
+        } catch (final RejectedExecutionException e) {
+            batch.failure.compareAndSet(null, e);
+            batch.finishWorker();
+        }
+    }
+
+    // Each worker fetches one task and then re-submits itself, so the executor slot is released between files
+    // and more urgent work queued on the same executor can run in between.
+    private void runNext(final Batch batch) {
+        final DownloadTask task = batch.failure.get() == null ? batch.queue.poll() : null;
+        if (task == null) {
+            batch.finishWorker();
+            return;
+        }
+        try {
+            batch.bytes.addAndGet(this.fetcher.fetch(task));
+            batch.files.incrementAndGet();
+        } catch (final IOException e) {
+            batch.failure.compareAndSet(null, new IOException("Failed to download '" + task.url() + "'", e));
+        } catch (final Throwable throwable) {
+            batch.failure.compareAndSet(null, throwable);
+        }
+        this.schedule(batch);
+    }
+
+    @FunctionalInterface
+    public interface Fetcher {
+
+        long fetch(final @NotNull DownloadTask task) throws IOException;
+
+    }
+
+    private static final class Batch {
+
+        private final Queue<DownloadTask> queue;
+        private final AtomicInteger remainingWorkers;
+        private final AtomicInteger files = new AtomicInteger();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final CompletableFuture<DownloadReport> future = new CompletableFuture<>();
+
+        private Batch(final Queue<DownloadTask> queue, final int workers) {
+            this.queue = queue;
+            this.remainingWorkers = new AtomicInteger(workers);
+        }
+
+        private void finishWorker() {
+            if (this.remainingWorkers.decrementAndGet() != 0) {
+                return;
+            }
+            final Throwable throwable = this.failure.get();
+            if (throwable != null) {
+                this.future.completeExceptionally(throwable);
+            } else {
+                this.future.complete(new DownloadReport(this.files.get(), this.bytes.get()));
+            }
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.event;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+
+public sealed interface ProvisioningEvent {
+
+    record StageStarted(@NotNull ProvisioningStage stage) implements ProvisioningEvent {
+
+        public StageStarted {
+            Objects.requireNonNull(stage, "stage must not be null");
+        }
+
+    }
+
+    record StageCompleted(@NotNull ProvisioningStage stage, @NotNull Duration duration, boolean success) implements ProvisioningEvent {
+
+        public StageCompleted {
+            Objects.requireNonNull(stage, "stage must not be null");
+            Objects.requireNonNull(duration, "duration must not be null");
+        }
+
+    }
+
+    record FileDownloaded(@NotNull String url, @NotNull Path path, long bytes, @NotNull Duration duration) implements ProvisioningEvent {
+
+        public FileDownloaded {
+            Objects.requireNonNull(url, "url must not be null");
+            Objects.requireNonNull(path, "path must not be null");
+            Objects.requireNonNull(duration, "duration must not be null");
+        }
+
+    }
+
+    record CacheLookup(@NotNull Path path, boolean hit) implements ProvisioningEvent {
+
+        public CacheLookup {
+            Objects.requireNonNull(path, "path must not be null");
+        }
+
+    }
+
+    record FilesVerified(int files, int mismatches, @NotNull Duration duration) implements ProvisioningEvent {
+
+        public FilesVerified {
+            Objects.requireNonNull(duration, "duration must not be null");
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -33,8 +33,24 @@ public enum OsType {
     OSX,
     UNKNOWN;
 
+    private static final OsType CURRENT = fromString(System.getProperty("os.name").toLowerCase());
+    private static final String CURRENT_VERSION = System.getProperty("os.version");
+    private static final String CURRENT_ARCH = System.getProperty("os.arch");
+
     public static @NotNull OsType getCurrentType() {
-        return fromString(System.getProperty("os.name").toLowerCase());
+        return CURRENT;
+    }
+
+    public static String getCurrentVersion() {
+        return CURRENT_VERSION;
+    }
+
+    public static String getCurrentArch() {
+        return CURRENT_ARCH;
+    }
+
+    public static @NotNull String getCurrentArchBits() {
+        return CURRENT_ARCH.contains("64") ? "64" : "32";
     }
 
     public static @NotNull OsType fromString(final String osId) {
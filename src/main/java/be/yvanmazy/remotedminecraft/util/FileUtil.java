@@ -30,8 +30,13 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
 
 public final class FileUtil {
 
@@ -67,4 +72,41 @@ public final class FileUtil {
         Files.copy(in, outPath);
     }
 
+    public static void link(final @NotNull Path source, final @NotNull Path target) throws IOException {
+        final Path parent = target.toAbsolutePath().getParent();
+        if (!Files.isDirectory(parent)) {
+            Files.createDirectories(parent);
+        }
+        // Natives in use by another process cannot be deleted on Windows, and would briefly vanish elsewhere
+        if (Files.exists(target) && Files.isSameFile(source, target)) {
+            return;
+        }
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, source);
+        } catch (final FileAlreadyExistsException e) {
+            if (!Files.isSameFile(source, target)) {
+                throw e;
+            }
+        } catch (final UnsupportedOperationException | IOException e) {
+            try {
+                Files.createSymbolicLink(target, source.toAbsolutePath());
+            } catch (final UnsupportedOperationException | IOException ignored) {
+                Files.copy(source, target);
+            }
+        }
+    }
+
+    public static void touch(final @NotNull Path path) throws IOException {
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+    }
+
+    public static void moveAtomically(final @NotNull Path source, final @NotNull Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
 }
\ No newline at end of file
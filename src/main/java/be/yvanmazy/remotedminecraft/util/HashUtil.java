@@ -25,38 +25,123 @@
 package be.yvanmazy.remotedminecraft.util;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
 
 public final class HashUtil {
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MAPPING_THRESHOLD = 8L * 1024L * 1024L;
+    private static final long MAPPING_CHUNK_SIZE = 64L * 1024L * 1024L;
+    private static final HexFormat HEX_FORMAT = HexFormat.of();
+
     private HashUtil() throws IllegalAccessException {
         throw new IllegalAccessException("You cannot instantiate a utility class");
     }
 
     public static @NotNull String hash(final @NotNull InputStream stream) throws IOException {
-        final MessageDigest hash;
-        try {
-            hash = MessageDigest.getInstance("SHA-1");
-        } catch (final NoSuchAlgorithmException e) {
-            throw new IOException(e);
-        }
-        final byte[] buf = new byte[1024];
+        final MessageDigest hash = newDigest();
+        final byte[] buf = new byte[BUFFER_SIZE];
         int count;
         try (stream) {
             while ((count = stream.read(buf)) != -1) hash.update(buf, 0, count);
         }
 
-        final byte[] bytes = hash.digest();
-        final StringBuilder builder = new StringBuilder();
-        for (final byte b : bytes) {
-            builder.append(String.format("%02x", b));
+        return toHex(hash.digest());
+    }
+
+    public static @NotNull String hash(final @NotNull Path path) throws IOException {
+        final MessageDigest hash = newDigest();
+        update(hash, path);
+
+        return toHex(hash.digest());
+    }
+
+    public static void update(final @NotNull MessageDigest hash, final @NotNull Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size >= MAPPING_THRESHOLD) {
+                long position = 0L;
+                while (position < size) {
+                    final long length = Math.min(MAPPING_CHUNK_SIZE, size - position);
+                    hash.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+                    position += length;
+                }
+            } else {
+                final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, Math.max(size, 1L)));
+                while (channel.read(buffer) != -1) {
+                    buffer.flip();
+                    hash.update(buffer);
+                    buffer.clear();
+                }
+            }
+        }
+    }
+
+    public static boolean matches(final @NotNull Path path, final @NotNull String sha1) {
+        try {
+            return hash(path).equalsIgnoreCase(sha1);
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    public static @NotNull List<Check> verifyAll(final @NotNull Collection<Check> checks) {
+        Objects.requireNonNull(checks, "checks must not be null");
+        if (checks.size() <= 1) {
+            return checks.stream().filter(check -> !matches(check.path(), check.sha1())).toList();
+        }
+        return checks.parallelStream().filter(check -> !matches(check.path(), check.sha1())).toList();
+    }
+
+    public static long copy(final @NotNull InputStream in,
+                            final @NotNull OutputStream out,
+                            final @Nullable MessageDigest digest) throws IOException {
+        final byte[] buf = new byte[BUFFER_SIZE];
+        long total = 0L;
+        int count;
+        while ((count = in.read(buf)) != -1) {
+            if (digest != null) {
+                digest.update(buf, 0, count);
+            }
+            out.write(buf, 0, count);
+            total += count;
+        }
+        return total;
+    }
+
+    public static @NotNull MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    public static @NotNull String toHex(final byte @NotNull [] bytes) {
+        return HEX_FORMAT.formatHex(bytes);
+    }
+
+    public record Check(@NotNull Path path, @NotNull String sha1) {
+
+        public Check {
+            Objects.requireNonNull(path, "path must not be null");
+            Objects.requireNonNull(sha1, "sha1 must not be null");
         }
 
-        return builder.toString();
     }
 
 }
\ No newline at end of file
@@ -28,9 +28,13 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public final class JsonUtil {
 
@@ -69,4 +73,18 @@ public final class JsonUtil {
         return GSON.fromJson(json, typeClass);
     }
 
+    public static <T> T fromJson(final Reader reader, final Class<T> typeClass) {
+        return GSON.fromJson(reader, typeClass);
+    }
+
+    public static <T> T fromJson(final Path path, final Class<T> typeClass) throws IOException {
+        try (final Reader reader = Files.newBufferedReader(path)) {
+            return fromJson(reader, typeClass);
+        }
+    }
+
+    public static JsonReader newReader(final Path path) throws IOException {
+        return GSON.newJsonReader(Files.newBufferedReader(path));
+    }
+
 }
\ No newline at end of file
@@ -24,11 +24,18 @@
 
 package be.yvanmazy.remotedminecraft.version;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Map;
 
+@JsonAdapter(AssetsTypeAdapter.class)
 public record Assets(Map<String, Data> objects) {
 
-    public record Data(String hash) {
+    public Assets {
+        objects = objects != null ? Map.copyOf(objects) : Map.of();
+    }
+
+    public record Data(String hash, long size) {
 
     }
 
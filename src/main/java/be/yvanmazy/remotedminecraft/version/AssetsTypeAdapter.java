@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.version;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+final class AssetsTypeAdapter extends TypeAdapter<Assets> {
+
+    @Override
+    public void write(final JsonWriter out, final Assets assets) throws IOException {
+        if (assets == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("objects");
+        out.beginObject();
+        for (final Map.Entry<String, Assets.Data> entry : assets.objects().entrySet()) {
+            final Assets.Data data = entry.getValue();
+            out.name(entry.getKey());
+            out.beginObject();
+            out.name("hash").value(data.hash());
+            out.name("size").value(data.size());
+            out.endObject();
+        }
+        out.endObject();
+        out.endObject();
+    }
+
+    @Override
+    public Assets read(final JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        final Map<String, Assets.Data> objects = new HashMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            if (in.nextName().equals("objects")) {
+                in.beginObject();
+                while (in.hasNext()) {
+                    final String name = in.nextName();
+                    objects.put(name, readData(in));
+                }
+                in.endObject();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Assets(objects);
+    }
+
+    private static Assets.Data readData(final JsonReader in) throws IOException {
+        String hash = null;
+        long size = 0L;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "hash" -> hash = in.nextString();
+                case "size" -> size = in.nextLong();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Assets.Data(hash, size);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,140 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.version;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public record LaunchTemplate(@NotNull String mainClass, @NotNull List<Argument> jvm, @NotNull List<Argument> game) {
+
+    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{(\\w+)}");
+
+    public LaunchTemplate {
+        Objects.requireNonNull(mainClass, "mainClass must not be null");
+        jvm = List.copyOf(jvm);
+        game = List.copyOf(game);
+    }
+
+    @Contract("_ -> new")
+    public static @NotNull LaunchTemplate compile(final @NotNull VersionManifest manifest) {
+        Objects.requireNonNull(manifest, "manifest must not be null");
+        final Map<String, String> constants = new HashMap<>();
+        putConstant(constants, "version_name", manifest.id());
+        putConstant(constants, "version_type", manifest.type());
+        putConstant(constants, "assets_index_name", manifest.assets());
+        final VersionManifest.Arguments arguments = manifest.arguments();
+        return new LaunchTemplate(Objects.requireNonNullElse(manifest.mainClass(), ""),
+                arguments != null ? compile(arguments.getJvmLines(), constants) : List.of(),
+                arguments != null ? compile(arguments.getGameLines(), constants) : List.of());
+    }
+
+    public void renderJvm(final @NotNull List<String> commands, final @NotNull Map<String, String> values) {
+        render(commands, this.jvm, values);
+    }
+
+    public void renderGame(final @NotNull List<String> commands, final @NotNull Map<String, String> values) {
+        render(commands, this.game, values);
+    }
+
+    private static void render(final List<String> commands, final List<Argument> arguments, final Map<String, String> values) {
+        for (final Argument argument : arguments) {
+            final String line = argument.render(values);
+            if (line.isBlank() && commands.size() > 1) {
+                commands.remove(commands.size() - 1);
+                continue;
+            }
+            commands.add(line);
+        }
+    }
+
+    private static List<Argument> compile(final List<String> lines, final Map<String, String> constants) {
+        final List<Argument> arguments = new ArrayList<>(lines.size());
+        for (final String line : lines) {
+            final List<String> literals = new ArrayList<>();
+            final List<String> variables = new ArrayList<>();
+            final Matcher matcher = VARIABLE_PATTERN.matcher(line);
+            final StringBuilder literal = new StringBuilder();
+            int last = 0;
+            while (matcher.find()) {
+                literal.append(line, last, matcher.start());
+                last = matcher.end();
+                final String constant = constants.get(matcher.group(1));
+                if (constant != null) {
+                    literal.append(constant);
+                    continue;
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                variables.add(matcher.group(1));
+            }
+            literal.append(line, last, line.length());
+            literals.add(literal.toString());
+            arguments.add(new Argument(literals, variables));
+        }
+        return arguments;
+    }
+
+    private static void putConstant(final Map<String, String> constants, final String name, final String value) {
+        if (value != null && !value.isBlank()) {
+            constants.put(name, value);
+        }
+    }
+
+    public record Argument(@NotNull List<String> literals, @NotNull List<String> variables) {
+
+        public Argument {
+            literals = List.copyOf(literals);
+            variables = List.copyOf(variables);
+            if (literals.size() != variables.size() + 1) {
+                throw new IllegalArgumentException("literals must contain one more element than variables");
+            }
+        }
+
+        public @NotNull String render(final @NotNull Map<String, String> values) {
+            if (this.variables.isEmpty()) {
+                return this.literals.get(0);
+            }
+            final StringBuilder builder = new StringBuilder(this.literals.get(0));
+            for (int i = 0; i < this.variables.size(); i++) {
+                final String value = values.get(this.variables.get(i));
+                if (value != null) {
+                    builder.append(value);
+                }
+                builder.append(this.literals.get(i + 1));
+            }
+            return builder.toString();
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.version;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+public record VersionList(@Nullable String latestRelease, @Nullable String latestSnapshot, @NotNull Map<String, VersionEntry> versions) {
+
+    public static final String LATEST_RELEASE = "latest.release";
+    public static final String LATEST_SNAPSHOT = "latest.snapshot";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VersionList.class);
+
+    public VersionList {
+        versions = Map.copyOf(Objects.requireNonNull(versions, "versions must not be null"));
+    }
+
+    public @Nullable VersionEntry find(final @NotNull String id) {
+        final String resolved = this.resolve(id);
+        return resolved != null ? this.versions.get(resolved) : null;
+    }
+
+    public @Nullable String resolve(final @NotNull String id) {
+        return switch (id) {
+            case LATEST_RELEASE -> this.latestRelease;
+            case LATEST_SNAPSHOT -> this.latestSnapshot;
+            default -> id;
+        };
+    }
+
+    public static boolean isAlias(final @NotNull String id) {
+        return id.equals(LATEST_RELEASE) || id.equals(LATEST_SNAPSHOT);
+    }
+
+    public static @NotNull VersionList read(final @NotNull JsonReader in) throws IOException {
+        String latestRelease = null;
+        String latestSnapshot = null;
+        final Map<String, VersionEntry> versions = new LinkedHashMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "latest" -> {
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        switch (in.nextName()) {
+                            case "release" -> latestRelease = in.nextString();
+                            case "snapshot" -> latestSnapshot = in.nextString();
+                            default -> in.skipValue();
+                        }
+                    }
+                    in.endObject();
+                }
+                case "versions" -> {
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        final VersionEntry entry = readEntry(in);
+                        if (entry != null) {
+                            versions.putIfAbsent(entry.id(), entry);
+                        }
+                    }
+                    in.endArray();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new VersionList(latestRelease, latestSnapshot, versions);
+    }
+
+    public static @Nullable VersionEntry find(final @NotNull JsonReader in, final @NotNull String id) throws IOException {
+        Objects.requireNonNull(id, "id must not be null");
+        in.beginObject();
+        while (in.hasNext()) {
+            if (!in.nextName().equals("versions")) {
+                in.skipValue();
+                continue;
+            }
+            in.beginArray();
+            while (in.hasNext()) {
+                final VersionEntry entry = readEntry(in);
+                if (entry != null && entry.id().equals(id)) {
+                    return entry;
+                }
+            }
+            in.endArray();
+        }
+        in.endObject();
+        return null;
+    }
+
+    private static @Nullable VersionEntry readEntry(final JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            in.skipValue();
+            return null;
+        }
+        String id = null;
+        String rawType = null;
+        String url = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id" -> id = in.nextString();
+                case "type" -> rawType = in.nextString();
+                case "url" -> url = in.nextString();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (id == null || url == null) {
+            return null;
+        }
+        final VersionType type = VersionType.fromString(rawType);
+        if (type == null) {
+            LOGGER.warn("Invalid version type on '{}': {}", id, rawType);
+            return null;
+        }
+
+        return new VersionEntry(id, type, url);
+    }
+
+}
\ No newline at end of file
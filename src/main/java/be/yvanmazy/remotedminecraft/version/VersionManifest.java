@@ -29,21 +29,33 @@ import be.yvanmazy.remotedminecraft.util.JsonUtil;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 public record VersionManifest(String id, JavaVersion javaVersion, Arguments arguments, AssetIndex assetIndex, String assets,
                               int complianceLevel, Downloads downloads, List<Library> libraries, Logging logging, String mainClass,
                               int minimumLauncherVersion, String releaseTime, String time, String type) {
 
+    public VersionManifest {
+        libraries = libraries != null ? List.copyOf(libraries) : List.of();
+    }
+
     public record JavaVersion(String component, int majorVersion) {
 
     }
 
     public record Arguments(List<JsonElement> game, List<JsonElement> jvm) {
 
+        public Arguments {
+            game = game != null ? List.copyOf(game) : List.of();
+            jvm = jvm != null ? List.copyOf(jvm) : List.of();
+        }
+
         public record Rule(String action, Map<String, Object> features, OS os) {
 
             public boolean isAllowed() {
@@ -60,10 +72,10 @@ public record VersionManifest(String id, JavaVersion javaVersion, Arguments argu
                     if (this.name != null && (type = OsType.fromString(this.name)) != OsType.getCurrentType() && type != OsType.UNKNOWN) {
                         return false;
                     }
-                    if (this.version != null && !this.version.equals(System.getProperty("os.version"))) {
+                    if (this.version != null && !this.version.equals(OsType.getCurrentVersion())) {
                         return false;
                     }
-                    return this.arch == null || this.arch.equals(System.getProperty("os.arch"));
+                    return this.arch == null || this.arch.equals(OsType.getCurrentArch());
                 }
 
             }
@@ -130,7 +142,12 @@ public record VersionManifest(String id, JavaVersion javaVersion, Arguments argu
 
     }
 
-    public record Library(Downloads downloads, String name, List<Arguments.Rule> rules) {
+    public record Library(Downloads downloads, String name, List<Arguments.Rule> rules, Map<String, String> natives, Extract extract) {
+
+        public Library {
+            rules = rules != null ? List.copyOf(rules) : null;
+            natives = natives != null ? Map.copyOf(natives) : null;
+        }
 
         public boolean isAllowed() {
             if (this.rules != null) {
@@ -143,7 +160,26 @@ public record VersionManifest(String id, JavaVersion javaVersion, Arguments argu
             return true;
         }
 
-        public record Downloads(Artifact artifact) {
+        public @Nullable Downloads.Artifact getNativeArtifact() {
+            if (this.natives == null || this.downloads == null || this.downloads.classifiers() == null) {
+                return null;
+            }
+            final String classifier = this.natives.get(OsType.getCurrentType().name().toLowerCase(Locale.ROOT));
+            if (classifier == null) {
+                return null;
+            }
+            return this.downloads.classifiers().get(classifier.replace("${arch}", OsType.getCurrentArchBits()));
+        }
+
+        public @NotNull List<String> getExtractExcludes() {
+            return this.extract != null && this.extract.exclude() != null ? this.extract.exclude() : List.of();
+        }
+
+        public record Downloads(Artifact artifact, Map<String, Artifact> classifiers) {
+
+            public Downloads {
+                classifiers = classifiers != null ? Map.copyOf(classifiers) : null;
+            }
 
             public record Artifact(String path, String sha1, int size, String url) {
 
@@ -151,6 +187,14 @@ public record VersionManifest(String id, JavaVersion javaVersion, Arguments argu
 
         }
 
+        public record Extract(List<String> exclude) {
+
+            public Extract {
+                exclude = exclude != null ? List.copyOf(exclude) : null;
+            }
+
+        }
+
     }
 
     public record Logging(Client client) {
@@ -0,0 +1,194 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassDataArchiveTest {
+
+    private static final Path JAVA = Path.of(System.getProperty("java.home"), "bin", "java");
+    private static final String RECORD = "-XX:ArchiveClassesAtExit=";
+    private static final String SHARE = "-XX:SharedArchiveFile=";
+
+    @Test
+    void recordingIsPublishedAfterACleanExit(final @TempDir Path directory) throws Exception {
+        final List<Path> classpath = List.of(writeJar(directory));
+        final Path archives = directory.resolve("cds");
+        final ClassDataArchive recorder = ClassDataArchive.of(archives, JAVA, classpath);
+        final Process process = start(recorder.prepare(), classpath);
+        recorder.attach(process);
+        assertEquals(0, await(process));
+
+        awaitNoRecordings(archives);
+        final List<String> arguments = ClassDataArchive.of(archives, JAVA, classpath).prepare();
+        assertTrue(arguments.get(0).startsWith(SHARE), arguments.toString());
+        assertEquals(0, await(start(arguments, classpath)));
+    }
+
+    @Test
+    void recordingOfAFailedClientIsDiscarded(final @TempDir Path directory) throws Exception {
+        final List<Path> classpath = List.of(writeJar(directory));
+        final Path archives = directory.resolve("cds");
+        final ClassDataArchive recorder = ClassDataArchive.of(archives, JAVA, classpath);
+        final Process process = start(recorder.prepare(), classpath, "fail");
+        recorder.attach(process);
+        // The JVM dumps its archive on any exit, the dump of a client that crashed or was stopped is not trusted
+        assertEquals(1, await(process));
+
+        awaitNoRecordings(archives);
+        assertTrue(ClassDataArchive.of(archives, JAVA, classpath).prepare().get(0).startsWith(RECORD));
+    }
+
+    @Test
+    void recordingLeftBehindIsPublishedByTheNextLaunch(final @TempDir Path directory) throws Exception {
+        final List<Path> classpath = List.of(writeJar(directory));
+        final Path archives = directory.resolve("cds");
+        // The controller exited before the client, nothing published the recording
+        assertEquals(0, await(start(ClassDataArchive.of(archives, JAVA, classpath).prepare(), classpath)));
+        assertEquals(1, recordings(archives).size());
+
+        final List<String> arguments = ClassDataArchive.of(archives, JAVA, classpath).prepare();
+        assertTrue(arguments.get(0).startsWith(SHARE), arguments.toString());
+        assertEquals(List.of(), recordings(archives));
+    }
+
+    @Test
+    void truncatedRecordingLeftBehindIsDiscarded(final @TempDir Path directory) throws Exception {
+        final List<Path> classpath = List.of(writeJar(directory));
+        final Path archives = directory.resolve("cds");
+        assertEquals(0, await(start(ClassDataArchive.of(archives, JAVA, classpath).prepare(), classpath)));
+        final Path recording = recordings(archives).get(0);
+        final byte[] content = Files.readAllBytes(recording);
+        recording.toFile().setWritable(true);
+        Files.write(recording, Arrays.copyOf(content, content.length / 2));
+
+        assertTrue(ClassDataArchive.of(archives, JAVA, classpath).prepare().get(0).startsWith(RECORD));
+        assertEquals(List.of(), recordings(archives));
+    }
+
+    @Test
+    void recordingOfARunningClientIsLeftToIt(final @TempDir Path directory) throws Exception {
+        final List<Path> classpath = List.of(writeJar(directory));
+        final Path archives = directory.resolve("cds");
+        final ClassDataArchive recorder = ClassDataArchive.of(archives, JAVA, classpath);
+        final Process process = start(recorder.prepare(), classpath, "wait");
+        try {
+            recorder.attach(process);
+            // A recording appearing while its client still runs is being dumped and cannot be validated yet
+            final Path recorderFile = recordings(archives, ".pid").get(0);
+            final String name = recorderFile.getFileName().toString();
+            final Path partial = Files.writeString(recorderFile.resolveSibling(name.substring(0, name.length() - ".pid".length())), "partial");
+
+            assertTrue(ClassDataArchive.of(archives, JAVA, classpath).prepare().get(0).startsWith(RECORD));
+            assertTrue(Files.exists(partial));
+        } finally {
+            try (final OutputStream input = process.getOutputStream()) {
+                input.write('\n');
+            }
+            await(process);
+        }
+        awaitNoRecordings(archives);
+    }
+
+    private static @NotNull Path writeJar(final @NotNull Path directory) throws IOException {
+        final Path jar = directory.resolve("client.jar");
+        final String entry = Client.class.getName().replace('.', '/') + ".class";
+        try (final JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar));
+             final InputStream input = Objects.requireNonNull(Client.class.getClassLoader().getResourceAsStream(entry))) {
+            output.putNextEntry(new JarEntry(entry));
+            input.transferTo(output);
+            output.closeEntry();
+        }
+        return jar;
+    }
+
+    private static @NotNull Process start(final @NotNull List<String> arguments, final @NotNull List<Path> classpath, final String... mode)
+            throws IOException {
+        final List<String> command = new ArrayList<>();
+        command.add(JAVA.toString());
+        command.addAll(arguments);
+        command.add("-cp");
+        command.add(classpath.get(0).toAbsolutePath().toString());
+        command.add(Client.class.getName());
+        command.addAll(List.of(mode));
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+    }
+
+    private static int await(final @NotNull Process process) throws InterruptedException {
+        assertTrue(process.waitFor(60L, TimeUnit.SECONDS));
+        return process.exitValue();
+    }
+
+    private static void awaitNoRecordings(final @NotNull Path archives) throws Exception {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60L);
+        while (!recordings(archives).isEmpty() || !recordings(archives, ".pid").isEmpty()) {
+            assertTrue(System.nanoTime() - deadline < 0L, "Recordings were not cleaned up");
+            Thread.sleep(10L);
+        }
+    }
+
+    private static @NotNull List<Path> recordings(final @NotNull Path archives) throws IOException {
+        return recordings(archives, ".recording");
+    }
+
+    private static @NotNull List<Path> recordings(final @NotNull Path archives, final @NotNull String suffix) throws IOException {
+        try (final Stream<Path> stream = Files.list(archives)) {
+            return stream.filter(path -> path.getFileName().toString().endsWith(suffix)).toList();
+        }
+    }
+
+    public static final class Client {
+
+        public static void main(final String[] args) throws IOException {
+            if (args.length == 0) {
+                return;
+            }
+            if (args[0].equals("fail")) {
+                System.exit(1);
+            }
+            System.in.read();
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft;
+
+import be.yvanmazy.remotedminecraft.cache.LockFile;
+import be.yvanmazy.remotedminecraft.config.MetadataFreshness;
+import be.yvanmazy.remotedminecraft.download.DownloadTransport;
+import be.yvanmazy.remotedminecraft.download.RevalidationResult;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetadataRefresherTest {
+
+    private static final String URL = "https://example.com/version_manifest.json";
+
+    @Test
+    void downloadDoesNotWaitForTheLock(final @TempDir Path directory) throws Exception {
+        final Path path = directory.resolve("versions/version_manifest.json");
+        final CountDownLatch requested = new CountDownLatch(1);
+        final DownloadTransport transport = url -> {
+            requested.countDown();
+            return new ByteArrayInputStream("fresh".getBytes(StandardCharsets.UTF_8));
+        };
+        final CompletableFuture<Boolean> revalidation;
+        try (final LockFile ignored = LockFile.acquire(path)) {
+            revalidation = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return new MetadataRefresher(transport, URL, path, MetadataFreshness.alwaysCheck()).revalidate();
+                } catch (final IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            // The request is sent while another process holds the manifest, only its publication waits
+            assertTrue(requested.await(30L, TimeUnit.SECONDS));
+            Thread.sleep(100L);
+            assertFalse(revalidation.isDone());
+            assertTrue(Files.notExists(path));
+        }
+        assertTrue(revalidation.get(30L, TimeUnit.SECONDS));
+        assertEquals("fresh", Files.readString(path));
+    }
+
+    @Test
+    void notModifiedKeepsTheFile(final @TempDir Path directory) throws Exception {
+        final Path path = directory.resolve("version_manifest.json");
+        final ConditionalTransport transport = new ConditionalTransport("\"v1\"", "content");
+
+        assertTrue(new MetadataRefresher(transport, URL, path, MetadataFreshness.alwaysCheck()).revalidate());
+        assertFalse(new MetadataRefresher(transport, URL, path, MetadataFreshness.alwaysCheck()).revalidate());
+        assertEquals("content", Files.readString(path));
+        assertEquals(2, transport.requests.get());
+        try (final var files = Files.list(directory)) {
+            assertEquals(2L, files.filter(file -> !file.getFileName().toString().endsWith(".lock")).count());
+        }
+    }
+
+    @Test
+    void staleManifestIsRevalidatedOnce(final @TempDir Path directory) throws Exception {
+        final Path path = directory.resolve("version_manifest.json");
+        final ConditionalTransport transport = new ConditionalTransport("\"v1\"", "content");
+
+        new MetadataRefresher(transport, URL, path, MetadataFreshness.DEFAULT).prepare();
+        new MetadataRefresher(transport, URL, path, MetadataFreshness.DEFAULT).prepare();
+        assertEquals(1, transport.requests.get());
+
+        final MetadataRefresher refresher = new MetadataRefresher(transport, URL, path, MetadataFreshness.alwaysCheck());
+        refresher.prepare();
+        assertFalse(refresher.revalidate());
+        assertEquals(2, transport.requests.get());
+    }
+
+    @Test
+    void manifestPublishedByAnotherProcessMeanwhileIsKept(final @TempDir Path directory) throws Exception {
+        final Path path = directory.resolve("version_manifest.json");
+        final DownloadTransport transport = new DownloadTransport() {
+            @Override
+            public @NotNull InputStream open(final @NotNull String url) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public @NotNull RevalidationResult downloadIfModified(final @NotNull String url,
+                                                                  final @NotNull Path temp,
+                                                                  final @Nullable String etag,
+                                                                  final @Nullable String lastModified) throws IOException {
+                Files.writeString(path, "newer");
+                Files.writeString(path.resolveSibling(path.getFileName() + ".meta"),
+                        "{\"etag\":\"\\\"v2\\\"\",\"checked\":" + System.currentTimeMillis() + "}");
+                Files.writeString(temp, "older");
+                return new RevalidationResult(true, "\"v1\"", null, 5L);
+            }
+        };
+
+        assertTrue(new MetadataRefresher(transport, URL, path, MetadataFreshness.alwaysCheck()).revalidate());
+        assertEquals("newer", Files.readString(path));
+    }
+
+    @Test
+    void offlineRefusesMissingManifest(final @TempDir Path directory) {
+        final MetadataRefresher refresher = new MetadataRefresher(url -> {
+            throw new AssertionError("Offline refreshers must not download");
+        }, URL, directory.resolve("version_manifest.json"), MetadataFreshness.offline());
+
+        assertThrows(IllegalStateException.class, refresher::prepare);
+    }
+
+    private static final class ConditionalTransport implements DownloadTransport {
+
+        private final AtomicInteger requests = new AtomicInteger();
+        private final String etag;
+        private final String content;
+
+        private ConditionalTransport(final @NotNull String etag, final @NotNull String content) {
+            this.etag = etag;
+            this.content = content;
+        }
+
+        @Override
+        public @NotNull InputStream open(final @NotNull String url) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public @NotNull RevalidationResult downloadIfModified(final @NotNull String url,
+                                                              final @NotNull Path path,
+                                                              final @Nullable String etag,
+                                                              final @Nullable String lastModified) throws IOException {
+            this.requests.incrementAndGet();
+            if (this.etag.equals(etag)) {
+                return RevalidationResult.notModified(etag, lastModified);
+            }
+            Files.writeString(path, this.content);
+            return new RevalidationResult(true, this.etag, null, this.content.length());
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProcessLauncherTest {
+
+    private static final List<String> ARGUMENTS = List.of("--username", "Steve Jobs", "C:\\Games\\.minecraft", "say \"hi\"", "", "-Dkey=a b\\c");
+
+    @Test
+    void argumentFilesAreReadBackUnchanged(final @TempDir Path directory) throws Exception {
+        final List<String> arguments = new ArrayList<>();
+        arguments.add("-cp");
+        arguments.add(Path.of(Echo.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString());
+        arguments.add(Echo.class.getName());
+        arguments.addAll(ARGUMENTS);
+        final Path argumentFile = ProcessLauncher.writeArgumentFile(directory, arguments);
+
+        final Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "@" + argumentFile.toAbsolutePath()).redirectErrorStream(true).start();
+        final String output = new String(process.getInputStream().readAllBytes(), Charset.defaultCharset());
+        assertTrue(process.waitFor(60L, TimeUnit.SECONDS));
+        assertEquals(0, process.exitValue(), output);
+        assertEquals(ARGUMENTS, output.lines().map(line -> line.substring(1, line.length() - 1)).toList());
+    }
+
+    @Test
+    void identicalArgumentsShareOneFile(final @TempDir Path directory) throws IOException {
+        final Path first = ProcessLauncher.writeArgumentFile(directory, ARGUMENTS);
+
+        assertEquals(first, ProcessLauncher.writeArgumentFile(directory, List.copyOf(ARGUMENTS)));
+        assertNotEquals(first, ProcessLauncher.writeArgumentFile(directory, ARGUMENTS.subList(1, ARGUMENTS.size())));
+        try (final var files = Files.list(directory.resolve("argfiles"))) {
+            assertEquals(2L, files.count());
+        }
+    }
+
+    public static final class Echo {
+
+        public static void main(final String[] args) {
+            for (final String arg : args) {
+                System.out.println('[' + arg + ']');
+            }
+        }
+
+    }
+
+}
\ No newline at end of file
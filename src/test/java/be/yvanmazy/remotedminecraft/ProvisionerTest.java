@@ -0,0 +1,307 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft;
+
+import be.yvanmazy.remotedminecraft.cache.BundleManifest;
+import be.yvanmazy.remotedminecraft.cache.LockFile;
+import be.yvanmazy.remotedminecraft.cache.VersionBundle;
+import be.yvanmazy.remotedminecraft.config.ProcessConfiguration;
+import be.yvanmazy.remotedminecraft.download.DownloadEndpoints;
+import be.yvanmazy.remotedminecraft.event.ProvisioningEvent;
+import be.yvanmazy.remotedminecraft.event.ProvisioningStage;
+import be.yvanmazy.remotedminecraft.util.FileUtil;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProvisionerTest {
+
+    @Test
+    void assetsLockedByAnotherProcessAreWaitedForOneByOne(final @TempDir Path directory) throws Exception {
+        final TestVersion version = new TestVersion(4);
+        final String locked = version.assets().get(0);
+        final Process owner = startStripeOwner(directory.resolve("assets/locks").resolve(locked.substring(0, 2)),
+                assetPath(directory, locked),
+                version.asset(locked));
+        try {
+            final BufferedReader output = new BufferedReader(new InputStreamReader(owner.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals("locked", output.readLine());
+
+            final CompletableFuture<ProvisioningReport> report = RemotedMinecraft.prefetch(version.configure(directory).build());
+            // Objects under other stripes do not queue behind the one held by the other process
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30L);
+            for (final String hash : version.assets().subList(1, version.assets().size())) {
+                while (Files.notExists(assetPath(directory, hash))) {
+                    assertTrue(System.nanoTime() - deadline < 0L, "Asset " + hash + " was not downloaded");
+                    Thread.sleep(10L);
+                }
+            }
+            assertFalse(report.isDone());
+
+            try (final OutputStream input = owner.getOutputStream()) {
+                input.write('\n');
+            }
+            report.get(30L, TimeUnit.SECONDS);
+            assertTrue(owner.waitFor(30L, TimeUnit.SECONDS));
+            assertEquals(0, owner.exitValue());
+        } finally {
+            owner.destroyForcibly();
+        }
+        assertEquals(0, version.assetRequests(locked));
+        assertArrayEquals(version.asset(locked), Files.readAllBytes(assetPath(directory, locked)));
+    }
+
+    @Test
+    void versionManifestIsRequestedWhileItsLockIsHeld(final @TempDir Path directory) throws Exception {
+        final TestVersion version = new TestVersion(1);
+        final CompletableFuture<ProvisioningReport> report;
+        try (final LockFile ignored = LockFile.acquire(directory.resolve("versions/version_manifest.json"))) {
+            report = RemotedMinecraft.prefetch(version.configure(directory).build());
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30L);
+            while (version.requests(DownloadEndpoints.DEFAULT.versionManifest()) == 0) {
+                assertTrue(System.nanoTime() - deadline < 0L, "Version manifest was not requested");
+                Thread.sleep(10L);
+            }
+            assertFalse(report.isDone());
+        }
+        report.get(30L, TimeUnit.SECONDS);
+        assertEquals(1, version.requests(DownloadEndpoints.DEFAULT.versionManifest()));
+    }
+
+    @Test
+    void assetDownloadsRetryTransientFailures(final @TempDir Path directory) throws Exception {
+        final TestVersion version = new TestVersion(8);
+        version.fault((url, attempt, content) -> {
+            if (isAsset(url) && attempt == 1) {
+                throw new IOException("Connection reset");
+            }
+            return content;
+        });
+        final ProvisioningReport report = RemotedMinecraft.prefetch(version.configure(directory).build()).get(30L, TimeUnit.SECONDS);
+        assertEquals(version.assets().size() + 4, report.downloadedFiles());
+        for (final String hash : version.assets()) {
+            assertEquals(2, version.assetRequests(hash));
+            assertArrayEquals(version.asset(hash), Files.readAllBytes(assetPath(directory, hash)));
+        }
+    }
+
+    @Test
+    void assetChecksumMismatchesAreRetried(final @TempDir Path directory) throws Exception {
+        final TestVersion version = new TestVersion(8);
+        version.fault((url, attempt, content) -> {
+            if (isAsset(url) && attempt == 1) {
+                final byte[] corrupted = content.clone();
+                corrupted[0] ^= 1;
+                return corrupted;
+            }
+            return content;
+        });
+        RemotedMinecraft.prefetch(version.configure(directory).build()).get(30L, TimeUnit.SECONDS);
+        for (final String hash : version.assets()) {
+            assertEquals(2, version.assetRequests(hash));
+            assertArrayEquals(version.asset(hash), Files.readAllBytes(assetPath(directory, hash)));
+        }
+    }
+
+    @Test
+    void assetDownloadsFailOnceRetriesAreExhausted(final @TempDir Path directory) {
+        final TestVersion version = new TestVersion(4);
+        final String failing = version.assets().get(0);
+        version.fault((url, attempt, content) -> {
+            if (url.equals(DownloadEndpoints.DEFAULT.asset(failing))) {
+                throw new IOException("Connection reset");
+            }
+            return content;
+        });
+        final CompletableFuture<ProvisioningReport> report = RemotedMinecraft.prefetch(version.configure(directory).build());
+        assertThrows(ExecutionException.class, () -> report.get(30L, TimeUnit.SECONDS));
+        assertEquals(3, version.assetRequests(failing));
+    }
+
+    @Test
+    void provisioningEventsCoverEveryStage(final @TempDir Path directory) throws Exception {
+        final TestVersion version = new TestVersion(4);
+        final List<ProvisioningEvent> events = new CopyOnWriteArrayList<>();
+        final ProcessConfiguration configuration = version.configure(directory).listener(events::add).listener(event -> {
+            throw new IllegalStateException("Listeners must not break provisioning");
+        }).build();
+
+        final ProvisioningReport report = RemotedMinecraft.prefetch(configuration).get(30L, TimeUnit.SECONDS);
+        assertEquals(EnumSet.allOf(ProvisioningStage.class), report.stageDurations().keySet());
+        for (final ProvisioningStage stage : ProvisioningStage.values()) {
+            final int started = events.indexOf(new ProvisioningEvent.StageStarted(stage));
+            final List<ProvisioningEvent.StageCompleted> completed = events(events, ProvisioningEvent.StageCompleted.class).stream()
+                    .filter(event -> event.stage() == stage)
+                    .toList();
+            assertTrue(started >= 0, stage + " was not started");
+            assertEquals(1, completed.size(), stage + " was not completed once");
+            assertTrue(completed.get(0).success());
+            assertTrue(events.indexOf(completed.get(0)) > started);
+            assertEquals(report.stageDurations().get(stage), completed.get(0).duration());
+        }
+        final Set<String> downloaded = events(events, ProvisioningEvent.FileDownloaded.class).stream()
+                .map(ProvisioningEvent.FileDownloaded::url)
+                .collect(Collectors.toSet());
+        for (final String hash : version.assets()) {
+            assertTrue(downloaded.contains(DownloadEndpoints.DEFAULT.asset(hash)), hash + " was not reported");
+        }
+        assertTrue(events(events, ProvisioningEvent.CacheLookup.class).stream().noneMatch(ProvisioningEvent.CacheLookup::hit));
+
+        // A second run finds every file in place
+        events.clear();
+        RemotedMinecraft.prefetch(configuration).get(30L, TimeUnit.SECONDS);
+        assertEquals(List.of(), events(events, ProvisioningEvent.FileDownloaded.class));
+        assertFalse(events(events, ProvisioningEvent.CacheLookup.class).isEmpty());
+        assertTrue(events(events, ProvisioningEvent.CacheLookup.class).stream().allMatch(ProvisioningEvent.CacheLookup::hit));
+    }
+
+    @Test
+    void offlineMirrorProvisionsWithoutTheNetwork(final @TempDir Path directory) throws Exception {
+        final TestVersion version = new TestVersion(4);
+        final Path mirror = directory.resolve("mirror");
+        version.mirror(mirror);
+
+        final ProvisioningReport report = RemotedMinecraft.prefetch(version.configure(directory.resolve("process"))
+                .offlineMirror(mirror)
+                .build()).get(30L, TimeUnit.SECONDS);
+        assertEquals(TestVersion.ID, report.versionId());
+        assertEquals(0, version.requests(DownloadEndpoints.DEFAULT.versionManifest()));
+        for (final String hash : version.assets()) {
+            assertArrayEquals(version.asset(hash), Files.readAllBytes(assetPath(directory.resolve("process"), hash)));
+        }
+    }
+
+    @Test
+    void offlineMirrorMissesFailWithTheExpectedPath(final @TempDir Path directory) throws Exception {
+        final TestVersion version = new TestVersion(4);
+        final Path mirror = directory.resolve("mirror");
+        version.mirror(mirror);
+        final URI missing = URI.create(DownloadEndpoints.DEFAULT.asset(version.assets().get(0)));
+        final Path expected = mirror.resolve(missing.getHost()).resolve(missing.getPath().substring(1));
+        Files.delete(expected);
+
+        final CompletableFuture<ProvisioningReport> report = RemotedMinecraft.prefetch(version.configure(directory.resolve("process"))
+                .offlineMirror(mirror)
+                .build());
+        final ExecutionException exception = assertThrows(ExecutionException.class, () -> report.get(30L, TimeUnit.SECONDS));
+        Throwable cause = exception;
+        while (cause != null && !(cause instanceof FileNotFoundException)) {
+            cause = cause.getCause();
+        }
+        assertNotNull(cause, "Expected a missing file in the mirror");
+        assertTrue(cause.getMessage().contains(expected.toString()), cause.getMessage());
+    }
+
+    @Test
+    void bundleSeedsAnotherDirectoryWithoutDownloads(final @TempDir Path directory) throws Exception {
+        final TestVersion seed = new TestVersion(4);
+        RemotedMinecraft.prefetch(seed.configure(directory.resolve("seed")).build()).get(30L, TimeUnit.SECONDS);
+        final Path bundle = directory.resolve("bundle.zip");
+        final BundleManifest exported = VersionBundle.export(directory.resolve("seed"), TestVersion.ID, bundle);
+
+        final BundleManifest imported = VersionBundle.importInto(bundle, directory.resolve("node"), null, Runnable::run);
+        assertEquals(exported, imported);
+        for (final String hash : seed.assets()) {
+            assertArrayEquals(seed.asset(hash), Files.readAllBytes(assetPath(directory.resolve("node"), hash)));
+        }
+
+        final TestVersion node = new TestVersion(4);
+        node.fault((url, attempt, content) -> {
+            throw new IOException("Seeded nodes must not download " + url);
+        });
+        final ProvisioningReport report = RemotedMinecraft.prefetch(node.configure(directory.resolve("node")).build()).get(30L, TimeUnit.SECONDS);
+        assertEquals(0, report.downloadedFiles());
+        assertEquals(0, node.requests(DownloadEndpoints.DEFAULT.versionManifest()));
+    }
+
+    static boolean isAsset(final String url) {
+        return url.startsWith(DownloadEndpoints.DEFAULT.assets());
+    }
+
+    private static <T extends ProvisioningEvent> @NotNull List<T> events(final List<ProvisioningEvent> events, final Class<T> type) {
+        return events.stream().filter(type::isInstance).map(type::cast).toList();
+    }
+
+    static @NotNull Path assetPath(final Path directory, final String hash) {
+        return directory.resolve("assets/objects").resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static Process startStripeOwner(final Path lockTarget, final Path object, final byte[] content) throws Exception {
+        final String java = ProcessHandle.current().info().command().orElseThrow();
+        final List<Path> classpath = new ArrayList<>();
+        for (final Class<?> type : List.of(StripeOwner.class, LockFile.class, LoggerFactory.class)) {
+            classpath.add(Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()));
+        }
+        return new ProcessBuilder(java,
+                "-cp", classpath.stream().map(Path::toString).collect(Collectors.joining(File.pathSeparator)),
+                StripeOwner.class.getName(),
+                lockTarget.toString(),
+                object.toString(),
+                HexFormat.of().formatHex(content)).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    }
+
+    // Holds a stripe until told to finish, then publishes the object the way a provisioner would
+    static final class StripeOwner {
+
+        public static void main(final String[] args) throws IOException {
+            final Path object = Path.of(args[1]);
+            try (final LockFile ignored = LockFile.acquire(Path.of(args[0]))) {
+                System.out.println("locked");
+                System.out.flush();
+                System.in.read();
+                Files.createDirectories(object.getParent());
+                final Path temp = Files.createTempFile(object.getParent(), object.getFileName().toString(), ".tmp");
+                Files.write(temp, HexFormat.of().parseHex(args[2]));
+                FileUtil.moveAtomically(temp, object);
+            }
+        }
+
+    }
+
+}
\ No newline at end of file
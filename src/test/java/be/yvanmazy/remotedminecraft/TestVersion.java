@@ -0,0 +1,208 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft;
+
+import be.yvanmazy.remotedminecraft.config.ProcessConfiguration;
+import be.yvanmazy.remotedminecraft.download.DownloadEndpoints;
+import be.yvanmazy.remotedminecraft.download.DownloadTransport;
+import be.yvanmazy.remotedminecraft.util.HashUtil;
+import be.yvanmazy.remotedminecraft.util.JsonUtil;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Serves a small version with one library and a few asset objects, every object under a different hash prefix
+final class TestVersion implements DownloadTransport {
+
+    static final String ID = "1.0";
+
+    private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private final List<String> assets = new ArrayList<>();
+    private volatile Fault fault = (url, attempt, content) -> content;
+
+    TestVersion(final int assetCount) {
+        final DownloadEndpoints endpoints = DownloadEndpoints.DEFAULT;
+        final JsonObject objects = new JsonObject();
+        final Set<String> prefixes = new HashSet<>();
+        for (int i = 0; this.assets.size() < assetCount; i++) {
+            final byte[] content = ("asset" + i).getBytes(StandardCharsets.UTF_8);
+            final String hash = sha1(content);
+            if (!prefixes.add(hash.substring(0, 2))) {
+                continue;
+            }
+            this.assets.add(hash);
+            this.files.put(endpoints.asset(hash), content);
+            final JsonObject object = new JsonObject();
+            object.addProperty("hash", hash);
+            object.addProperty("size", content.length);
+            objects.add("minecraft/textures/asset" + i + ".png", object);
+        }
+        final JsonObject index = new JsonObject();
+        index.add("objects", objects);
+        final byte[] indexContent = this.put("https://piston-meta.mojang.com/v1/packages/" + ID + "/indexes.json", JsonUtil.toJson(index));
+
+        final byte[] client = this.put("https://piston-data.mojang.com/v1/objects/client.jar", "client");
+        final byte[] library = this.put(endpoints.libraries() + "test/library/1.0/library-1.0.jar", "library");
+
+        final JsonObject version = new JsonObject();
+        version.addProperty("id", ID);
+        version.addProperty("type", "release");
+        version.addProperty("mainClass", "net.minecraft.client.main.Main");
+        version.addProperty("assets", ID);
+        version.add("assetIndex", download(ID, indexContent, "https://piston-meta.mojang.com/v1/packages/" + ID + "/indexes.json"));
+        final JsonObject downloads = new JsonObject();
+        downloads.add("client", download(null, client, "https://piston-data.mojang.com/v1/objects/client.jar"));
+        version.add("downloads", downloads);
+        final JsonObject artifact = download(null, library, endpoints.libraries() + "test/library/1.0/library-1.0.jar");
+        artifact.addProperty("path", "test/library/1.0/library-1.0.jar");
+        final JsonObject libraryDownloads = new JsonObject();
+        libraryDownloads.add("artifact", artifact);
+        final JsonObject libraryObject = new JsonObject();
+        libraryObject.addProperty("name", "test:library:1.0");
+        libraryObject.add("downloads", libraryDownloads);
+        final JsonArray libraries = new JsonArray();
+        libraries.add(libraryObject);
+        version.add("libraries", libraries);
+        final JsonObject arguments = new JsonObject();
+        arguments.add("game", new JsonArray());
+        arguments.add("jvm", new JsonArray());
+        version.add("arguments", arguments);
+        this.put("https://piston-meta.mojang.com/v1/packages/" + ID + ".json", JsonUtil.toJson(version));
+
+        final JsonObject entry = new JsonObject();
+        entry.addProperty("id", ID);
+        entry.addProperty("type", "release");
+        entry.addProperty("url", "https://piston-meta.mojang.com/v1/packages/" + ID + ".json");
+        final JsonArray versions = new JsonArray();
+        versions.add(entry);
+        final JsonObject latest = new JsonObject();
+        latest.addProperty("release", ID);
+        latest.addProperty("snapshot", ID);
+        final JsonObject list = new JsonObject();
+        list.add("latest", latest);
+        list.add("versions", versions);
+        this.put(endpoints.versionManifest(), JsonUtil.toJson(list));
+    }
+
+    static @NotNull String sha1(final byte @NotNull [] content) {
+        try {
+            return HashUtil.hash(new ByteArrayInputStream(content));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static JsonObject download(final String id, final byte[] content, final String url) {
+        final JsonObject object = new JsonObject();
+        if (id != null) {
+            object.addProperty("id", id);
+        }
+        object.addProperty("sha1", sha1(content));
+        object.addProperty("size", content.length);
+        object.addProperty("url", url);
+        return object;
+    }
+
+    private byte[] put(final String url, final String content) {
+        final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        this.files.put(url, bytes);
+        return bytes;
+    }
+
+    @NotNull ProcessConfiguration.Builder configure(final @NotNull Path directory) {
+        return ProcessConfiguration.newBuilder()
+                .version(ID)
+                .processDirectory(directory)
+                .processJavaPath(Path.of(ProcessHandle.current().info().command().orElse("java")))
+                .downloadTransport(this);
+    }
+
+    @NotNull List<String> assets() {
+        return this.assets;
+    }
+
+    byte @NotNull [] asset(final @NotNull String hash) {
+        return this.files.get(DownloadEndpoints.DEFAULT.asset(hash));
+    }
+
+    int requests(final @NotNull String url) {
+        final AtomicInteger count = this.requests.get(url);
+        return count != null ? count.get() : 0;
+    }
+
+    int assetRequests(final @NotNull String hash) {
+        return this.requests(DownloadEndpoints.DEFAULT.asset(hash));
+    }
+
+    // Lays the files out like an offline mirror, under <root>/<host>/<path>
+    void mirror(final @NotNull Path root) throws IOException {
+        for (final Map.Entry<String, byte[]> entry : this.files.entrySet()) {
+            final URI uri = URI.create(entry.getKey());
+            final Path path = root.resolve(uri.getHost()).resolve(uri.getPath().substring(1));
+            Files.createDirectories(path.getParent());
+            Files.write(path, entry.getValue());
+        }
+    }
+
+    void fault(final @NotNull Fault fault) {
+        this.fault = fault;
+    }
+
+    @Override
+    public @NotNull InputStream open(final @NotNull String url) throws IOException {
+        final int attempt = this.requests.computeIfAbsent(url, key -> new AtomicInteger()).incrementAndGet();
+        final byte[] content = this.files.get(url);
+        if (content == null) {
+            throw new FileNotFoundException(url);
+        }
+        return new ByteArrayInputStream(this.fault.apply(url, attempt, content));
+    }
+
+    @FunctionalInterface
+    interface Fault {
+
+        byte @NotNull [] apply(final @NotNull String url, final int attempt, final byte @NotNull [] content) throws IOException;
+
+    }
+
+}
\ No newline at end of file
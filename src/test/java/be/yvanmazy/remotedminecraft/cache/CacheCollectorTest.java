@@ -0,0 +1,239 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.cache;
+
+import be.yvanmazy.remotedminecraft.util.HashUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class CacheCollectorTest {
+
+    private static final CachePolicy POLICY = CachePolicy.unusedFor(Duration.ofDays(7L));
+    private static final byte[] SHARED = "shared".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OWN = "only used by the evicted version".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void orphansAndTheirSidecarsAreSwept(final @TempDir Path directory) throws IOException {
+        writeVersion(directory, "1.0", Instant.now(), Map.of("l/live.jar", SHARED));
+        final Path live = write(directory.resolve("libraries/l/live.jar"), SHARED);
+        final Path partial = write(directory.resolve("libraries/l/live.jar.part"), OWN);
+        final Path orphan = write(directory.resolve("libraries/l/orphan.jar"), OWN);
+        final Path orphanPartial = write(directory.resolve("libraries/l/orphan.jar.part"), OWN);
+
+        final CacheReport report = new CacheCollector(directory, CachePolicy.orphansOnly()).collect();
+
+        assertTrue(Files.exists(live));
+        assertTrue(Files.exists(partial));
+        assertFalse(Files.exists(orphan));
+        assertFalse(Files.exists(orphanPartial));
+        assertEquals(List.of(), report.evictedVersions());
+        assertEquals(2, report.deletedFiles());
+        assertEquals(2L * OWN.length, report.freedBytes());
+    }
+
+    @Test
+    void storeObjectsAreCollectedOnceNoDirectoryLinksThem(final @TempDir Path root) throws IOException {
+        final ContentStore store = new ContentStore(root.resolve("store"));
+        final String shared = store(store, SHARED);
+        final String own = store(store, OWN);
+        final Path evicted = root.resolve("evicted");
+        final Path retained = root.resolve("retained");
+        final Path versionFile = writeVersion(evicted, "old", Instant.now().minus(Duration.ofDays(30L)),
+                Map.of("l/shared.jar", SHARED, "l/own.jar", OWN));
+        assertTrue(store.link(shared, evicted.resolve("libraries/l/shared.jar")));
+        assertTrue(store.link(own, evicted.resolve("libraries/l/own.jar")));
+        writeVersion(retained, "new", Instant.now(), Map.of("l/shared.jar", SHARED));
+        assertTrue(store.link(shared, retained.resolve("libraries/l/shared.jar")));
+        final long versionSize = Files.size(versionFile);
+
+        final CacheReport report = new CacheCollector(evicted, store.root(), POLICY).collect();
+
+        assertEquals(List.of("old"), report.evictedVersions());
+        assertTrue(store.contains(shared));
+        assertFalse(store.contains(own));
+        assertArrayEquals(SHARED, Files.readAllBytes(retained.resolve("libraries/l/shared.jar")));
+        // Links still held by another directory free nothing, the object freed by the store sweep does
+        assertEquals(versionSize + OWN.length, report.freedBytes());
+    }
+
+    @Test
+    void storeIsKeptWhileADirectoryLinksToItSymbolically(final @TempDir Path root) throws IOException {
+        final ContentStore store = new ContentStore(root.resolve("store"));
+        final String shared = store(store, SHARED);
+        final Path evicted = root.resolve("evicted");
+        writeVersion(evicted, "old", Instant.now().minus(Duration.ofDays(30L)), Map.of("l/shared.jar", SHARED));
+        assertTrue(store.link(shared, evicted.resolve("libraries/l/shared.jar")));
+        final Path symbolic = root.resolve("symbolic/libraries/l/shared.jar");
+        Files.createDirectories(symbolic.getParent());
+        Files.createSymbolicLink(symbolic, store.resolve(shared));
+        store.markSymbolicLinks();
+
+        new CacheCollector(evicted, store.root(), POLICY).collect();
+
+        assertTrue(store.contains(shared));
+        assertArrayEquals(SHARED, Files.readAllBytes(symbolic));
+    }
+
+    @Test
+    void symbolicLinkFallbackAcrossFileSystemsIsRecorded(final @TempDir Path root) throws IOException {
+        final Path memory = Path.of("/dev/shm");
+        assumeTrue(Files.isDirectory(memory) && Files.isWritable(memory) && !Files.getFileStore(memory).equals(Files.getFileStore(root)),
+                "A second file system is required to prevent hard links");
+        final ContentStore store = new ContentStore(root.resolve("store"));
+        final String shared = store(store, SHARED);
+        final Path evicted = root.resolve("evicted");
+        writeVersion(evicted, "old", Instant.now().minus(Duration.ofDays(30L)), Map.of("l/shared.jar", SHARED));
+        assertTrue(store.link(shared, evicted.resolve("libraries/l/shared.jar")));
+        assertFalse(store.hasSymbolicLinks());
+        final Path other = Files.createTempDirectory(memory, "cache-collector");
+        try {
+            final Path linked = other.resolve("libraries/l/shared.jar");
+            assertTrue(store.link(shared, linked));
+            assertTrue(Files.isSymbolicLink(linked));
+            assertTrue(store.hasSymbolicLinks());
+
+            new CacheCollector(evicted, store.root(), POLICY).collect();
+
+            assertTrue(store.contains(shared));
+            assertArrayEquals(SHARED, Files.readAllBytes(linked));
+        } finally {
+            Files.deleteIfExists(other.resolve("libraries/l/shared.jar"));
+            Files.deleteIfExists(other.resolve("libraries/l"));
+            Files.deleteIfExists(other.resolve("libraries"));
+            Files.deleteIfExists(other);
+        }
+    }
+
+    @Test
+    void sizeBudgetEvictsLeastRecentlyUsedVersionsFirst(final @TempDir Path directory) throws IOException {
+        writeSizedVersions(directory);
+
+        final CacheReport report = new CacheCollector(directory, CachePolicy.sizeBudget(2500L)).collect();
+        assertEquals(List.of("1.0"), report.evictedVersions());
+        assertFalse(Files.exists(directory.resolve("libraries/1.0.jar")));
+        assertTrue(Files.exists(directory.resolve("libraries/1.1.jar")));
+        assertTrue(Files.exists(directory.resolve("libraries/1.2.jar")));
+    }
+
+    @Test
+    void pinnedVersionsAreNeverEvicted(final @TempDir Path directory) throws IOException {
+        writeSizedVersions(directory);
+        writeVersion(directory, "old", Instant.now().minus(Duration.ofDays(30L)), Map.of());
+
+        final CacheReport report = new CacheCollector(directory, POLICY.pin("old")).collect();
+        assertEquals(List.of(), report.evictedVersions());
+        assertTrue(Files.exists(directory.resolve("versions/old")));
+
+        final CacheReport budgetReport = new CacheCollector(directory, CachePolicy.sizeBudget(2500L).pin("1.0", "old")).collect();
+        assertEquals(List.of("1.1"), budgetReport.evictedVersions());
+        assertTrue(Files.exists(directory.resolve("libraries/1.0.jar")));
+        assertFalse(Files.exists(directory.resolve("libraries/1.1.jar")));
+    }
+
+    @Test
+    void collectionWaitsForProvisioners(final @TempDir Path directory) throws Exception {
+        writeVersion(directory, "old", Instant.now().minus(Duration.ofDays(30L)), Map.of());
+        final CompletableFuture<CacheReport> collection;
+        try (final LockFile ignored = LockFile.acquireShared(CacheCollector.provisioningLock(directory))) {
+            collection = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return new CacheCollector(directory, POLICY).collect();
+                } catch (final IOException e) {
+                    throw new CompletionException(e);
+                }
+            });
+            Thread.sleep(200L);
+            assertFalse(collection.isDone());
+            assertTrue(Files.exists(directory.resolve("versions/old")));
+        }
+        assertEquals(List.of("old"), collection.get(10L, TimeUnit.SECONDS).evictedVersions());
+        assertFalse(Files.exists(directory.resolve("versions/old")));
+    }
+
+    private static Path writeVersion(final Path directory, final String id, final Instant lastUsed, final Map<String, byte[]> libraries)
+            throws IOException {
+        final StringBuilder json = new StringBuilder("{\"id\":\"").append(id).append("\",\"libraries\":[");
+        boolean first = true;
+        for (final Map.Entry<String, byte[]> library : libraries.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append("{\"name\":\"").append(library.getKey()).append("\",\"downloads\":{\"artifact\":{\"path\":\"")
+                    .append(library.getKey()).append("\",\"sha1\":\"").append(sha1(library.getValue())).append("\"}}}");
+        }
+        json.append("]}");
+        final Path path = write(directory.resolve("versions/" + id + '/' + id + ".json"), json.toString().getBytes(StandardCharsets.UTF_8));
+        final Path marker = write(CacheCollector.lastUsedMarker(directory, id), new byte[0]);
+        Files.setLastModifiedTime(marker, FileTime.from(lastUsed));
+        return path;
+    }
+
+    // Three versions of about a kilobyte each, used three, two and one days ago
+    private static void writeSizedVersions(final Path directory) throws IOException {
+        final Instant now = Instant.now();
+        final String[] ids = {"1.0", "1.1", "1.2"};
+        for (int i = 0; i < ids.length; i++) {
+            final byte[] library = new byte[1000];
+            Arrays.fill(library, (byte) i);
+            writeVersion(directory, ids[i], now.minus(Duration.ofDays(3L - i)), Map.of(ids[i] + ".jar", library));
+            write(directory.resolve("libraries/" + ids[i] + ".jar"), library);
+        }
+    }
+
+    private static String store(final ContentStore store, final byte[] content) throws IOException {
+        final String sha1 = sha1(content);
+        store.store(sha1, path -> Files.write(path, content));
+        return sha1;
+    }
+
+    private static Path write(final Path path, final byte[] content) throws IOException {
+        Files.createDirectories(path.getParent());
+        return Files.write(path, content);
+    }
+
+    private static String sha1(final byte[] content) throws IOException {
+        return HashUtil.hash(new ByteArrayInputStream(content));
+    }
+
+}
\ No newline at end of file
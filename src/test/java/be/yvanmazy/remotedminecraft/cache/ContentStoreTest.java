@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ContentStoreTest {
+
+    private static final String SHA1 = "a94a8fe5ccb19ba61c4c0873d391e987982fbbd3";
+    private static final byte[] CONTENT = "test".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void storedObjectsAreLinkedIntoDirectories(final @TempDir Path root) throws IOException {
+        final ContentStore store = new ContentStore(root.resolve("store"));
+        final Path object = store.store(SHA1, path -> Files.write(path, CONTENT));
+        final Path target = root.resolve("process/libraries/test.jar");
+
+        assertEquals(root.resolve("store/a9").resolve(SHA1), object);
+        assertTrue(store.contains(SHA1));
+        assertTrue(store.link(SHA1, target));
+        assertTrue(Files.isSameFile(object, target));
+        assertFalse(Files.isSymbolicLink(target));
+        assertFalse(store.hasSymbolicLinks());
+        // Linking again keeps the file that may already be mapped by a running client
+        assertTrue(store.link(SHA1, target));
+        assertEquals(2, Files.getAttribute(object, "unix:nlink"));
+    }
+
+    @Test
+    void missingObjectsAreNotLinked(final @TempDir Path root) throws IOException {
+        final ContentStore store = new ContentStore(root.resolve("store"));
+        final Path target = root.resolve("process/libraries/test.jar");
+
+        assertFalse(store.contains(SHA1));
+        assertFalse(store.link(SHA1, target));
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    void linksAcrossFileSystemsFallBackToSymbolicLinks(final @TempDir Path root) throws IOException {
+        final Path shm = Path.of("/dev/shm");
+        assumeTrue(Files.isDirectory(shm) && Files.isWritable(shm));
+        final Path other = Files.createTempDirectory(shm, "store");
+        try {
+            assumeTrue(!Files.getFileStore(other).equals(Files.getFileStore(root)));
+            final ContentStore store = new ContentStore(other);
+            store.store(SHA1, path -> Files.write(path, CONTENT));
+            final Path target = root.resolve("libraries/test.jar");
+
+            assertTrue(store.link(SHA1, target));
+            assertTrue(Files.isSymbolicLink(target));
+            assertArrayEquals(CONTENT, Files.readAllBytes(target));
+            assertTrue(store.hasSymbolicLinks());
+        } finally {
+            try (final Stream<Path> files = Files.walk(other)) {
+                for (final Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    @Test
+    void adoptedFilesAreSharedWithTheStore(final @TempDir Path root) throws IOException {
+        final ContentStore store = new ContentStore(root.resolve("store"));
+        final Path existing = Files.write(root.resolve("test.jar"), CONTENT);
+
+        store.adopt(SHA1, existing);
+        assertTrue(Files.isSameFile(store.resolve(SHA1), existing));
+        // An object that is already stored is never replaced
+        final Path other = Files.writeString(root.resolve("other.jar"), "other");
+        store.adopt(SHA1, other);
+        assertArrayEquals(CONTENT, Files.readAllBytes(store.resolve(SHA1)));
+    }
+
+    @Test
+    void objectsAreOnlyRemovedThroughTheirLastLink(final @TempDir Path root) throws IOException {
+        final ContentStore store = new ContentStore(root.resolve("store"));
+        store.store(SHA1, path -> Files.write(path, CONTENT));
+        final Path linked = root.resolve("linked.jar");
+        store.link(SHA1, linked);
+        final Path copy = Files.write(root.resolve("copy.jar"), CONTENT);
+
+        assertFalse(store.removeIfLinked(SHA1, copy));
+        assertTrue(store.contains(SHA1));
+        assertTrue(store.removeIfLinked(SHA1, linked));
+        assertFalse(store.contains(SHA1));
+        assertArrayEquals(CONTENT, Files.readAllBytes(linked));
+    }
+
+    @Test
+    void objectsShareStripedLocks() {
+        final ContentStore store = new ContentStore(Path.of("store"));
+
+        assertEquals(store.lockTarget(SHA1), store.lockTarget("a9" + "0".repeat(38)));
+        assertNotEquals(store.lockTarget(SHA1), store.lockTarget("b9" + "0".repeat(38)));
+        assertThrows(IllegalArgumentException.class, () -> store.resolve("a9"));
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LockFileTest {
+
+    private static final Duration CONTENTION = Duration.ofMillis(300);
+
+    @Test
+    void contendedExclusiveLockStaysHeld(final @TempDir Path directory) throws Exception {
+        final Path target = directory.resolve("target");
+        try (final LockFile ignored = LockFile.acquire(target)) {
+            assertTimesOut(CompletableFuture.runAsync(() -> acquire(target, false)));
+            assertFalse(lockedByOtherProcess(LockFile.resolve(target), false));
+        }
+        assertTrue(lockedByOtherProcess(LockFile.resolve(target), false));
+    }
+
+    @Test
+    void contendedSharedLockStaysHeld(final @TempDir Path directory) throws Exception {
+        final Path target = directory.resolve("target");
+        try (final LockFile ignored = LockFile.acquireShared(target)) {
+            assertTimesOut(CompletableFuture.runAsync(() -> acquire(target, false)));
+            assertFalse(lockedByOtherProcess(LockFile.resolve(target), false));
+            CompletableFuture.runAsync(() -> acquire(target, true)).get(5L, TimeUnit.SECONDS);
+            assertTrue(lockedByOtherProcess(LockFile.resolve(target), true));
+            assertFalse(lockedByOtherProcess(LockFile.resolve(target), false));
+        }
+        assertTrue(lockedByOtherProcess(LockFile.resolve(target), false));
+    }
+
+    @Test
+    void waiterAcquiresAfterRelease(final @TempDir Path directory) throws Exception {
+        final Path target = directory.resolve("target");
+        final CompletableFuture<Void> waiter;
+        try (final LockFile ignored = LockFile.acquire(target)) {
+            waiter = CompletableFuture.runAsync(() -> {
+                try (final LockFile lock = LockFile.acquire(target, Duration.ofSeconds(5L))) {
+                    assertFalse(lock.isStale());
+                } catch (final IOException e) {
+                    throw new CompletionException(e);
+                }
+            });
+            Thread.sleep(100L);
+            assertFalse(waiter.isDone());
+        }
+        waiter.get(5L, TimeUnit.SECONDS);
+    }
+
+    private static void acquire(final Path target, final boolean shared) {
+        try (final LockFile ignored = shared ? LockFile.acquireShared(target, CONTENTION) : LockFile.acquire(target, CONTENTION)) {
+            assertNotNull(ignored);
+        } catch (final IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static void assertTimesOut(final CompletableFuture<Void> future) throws Exception {
+        final CompletionException exception = assertThrows(CompletionException.class, future.orTimeout(5L, TimeUnit.SECONDS)::join);
+        assertInstanceOf(IOException.class, exception.getCause());
+    }
+
+    private static boolean lockedByOtherProcess(final Path path, final boolean shared) throws Exception {
+        final String java = ProcessHandle.current().info().command().orElseThrow();
+        final Path classes = Path.of(Probe.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        final Process process = new ProcessBuilder(java, "-cp", classes.toString(),
+                Probe.class.getName(), path.toString(), Boolean.toString(shared)).inheritIO().start();
+        assertTrue(process.waitFor(30L, TimeUnit.SECONDS));
+        return process.exitValue() == 0;
+    }
+
+    static final class Probe {
+
+        public static void main(final String[] args) throws IOException {
+            try (final FileChannel channel = FileChannel.open(Path.of(args[0]), StandardOpenOption.READ, StandardOpenOption.WRITE);
+                 final FileLock lock = channel.tryLock(0L, Long.MAX_VALUE, Boolean.parseBoolean(args[1]))) {
+                System.exit(lock != null ? 0 : 1);
+            }
+        }
+
+    }
+
+}
\ No newline at end of file
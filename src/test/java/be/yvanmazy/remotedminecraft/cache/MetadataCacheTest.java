@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.cache;
+
+import be.yvanmazy.remotedminecraft.version.LaunchTemplate;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetadataCacheTest {
+
+    private final MetadataCache cache = MetadataCache.getInstance();
+
+    @AfterEach
+    void clear() {
+        this.cache.clear();
+    }
+
+    @Test
+    void launchTemplateIsCompiledOnceAndRendered(final @TempDir Path directory) throws Exception {
+        final Path path = writeVersion(directory.resolve("1.0.json"), "net.minecraft.client.main.Main");
+
+        final LaunchTemplate template = this.cache.launchTemplate(path);
+        assertEquals("net.minecraft.client.main.Main", template.mainClass());
+        assertEquals(List.of("--version", "1.0", "--username", "Steve"), renderGame(template));
+        assertTrue(Files.isRegularFile(directory.resolve("1.0.json.launch")));
+
+        // A new process gets the same template back from the compiled one
+        this.cache.clear();
+        assertEquals(template, this.cache.launchTemplate(path));
+    }
+
+    @Test
+    void launchTemplateIsRecompiledWhenTheVersionChanges(final @TempDir Path directory) throws Exception {
+        final Path path = writeVersion(directory.resolve("1.0.json"), "net.minecraft.client.main.Main");
+        this.cache.launchTemplate(path);
+        this.cache.clear();
+
+        writeVersion(path, "net.minecraft.client.main.Other");
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now().plusSeconds(60L)));
+        assertEquals("net.minecraft.client.main.Other", this.cache.launchTemplate(path).mainClass());
+    }
+
+    @Test
+    void launchTemplateIsReturnedWhenItCannotBeStored(final @TempDir Path directory) throws Exception {
+        // The temporary file name of the compiled template exceeds what the file system accepts
+        final Path path = writeVersion(directory.resolve("v".repeat(240) + ".json"), "net.minecraft.client.main.Main");
+
+        assertEquals("net.minecraft.client.main.Main", this.cache.launchTemplate(path).mainClass());
+        assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".launch")));
+    }
+
+    private static @NotNull Path writeVersion(final @NotNull Path path, final @NotNull String mainClass) throws IOException {
+        return Files.writeString(path, """
+                {
+                  "id": "1.0",
+                  "type": "release",
+                  "mainClass": "%s",
+                  "arguments": {
+                    "game": ["--version", "${version_name}", "--username", "${auth_player_name}"],
+                    "jvm": []
+                  }
+                }""".formatted(mainClass));
+    }
+
+    private static @NotNull List<String> renderGame(final @NotNull LaunchTemplate template) {
+        final List<String> commands = new ArrayList<>();
+        template.renderGame(commands, Map.of("auth_player_name", "Steve"));
+        return commands;
+    }
+
+}
\ No newline at end of file
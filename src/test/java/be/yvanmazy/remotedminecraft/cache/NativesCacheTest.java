@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativesCacheTest {
+
+    private static final String SHA1 = "a94a8fe5ccb19ba61c4c0873d391e987982fbbd3";
+    private static final String PLATFORM = "linux-x86_64";
+    private static final List<String> EXCLUDES = List.of("META-INF/");
+
+    @Test
+    void nativesAreExtractedOnceAndLinked(final @TempDir Path root) throws IOException {
+        final Path archive = zip(root.resolve("natives.jar"),
+                Map.of("liblwjgl.so", "lwjgl", "sub/libglfw.so", "glfw", "META-INF/MANIFEST.MF", "manifest"));
+        final NativesCache cache = new NativesCache(root.resolve("natives-cache"));
+
+        final Path extracted = cache.extract(SHA1, PLATFORM, archive, EXCLUDES);
+        assertEquals(cache.resolve(SHA1, PLATFORM), extracted);
+        assertEquals("lwjgl", Files.readString(extracted.resolve("liblwjgl.so")));
+        assertFalse(Files.exists(extracted.resolve("META-INF")));
+
+        // The archive is not read again once its natives are in the cache
+        Files.delete(archive);
+        assertEquals(extracted, cache.extract(SHA1, PLATFORM, archive, EXCLUDES));
+
+        final Path natives = root.resolve("process/natives");
+        assertFalse(cache.linkInto(extracted, natives));
+        assertTrue(Files.isSameFile(extracted.resolve("sub/libglfw.so"), natives.resolve("sub/libglfw.so")));
+        assertEquals(List.of(extracted), list(cache.root()));
+    }
+
+    @Test
+    void entriesEscapingTheCacheAreRejected(final @TempDir Path root) throws IOException {
+        final Path archive = zip(root.resolve("natives.jar"), Map.of("../../escaped.so", "escaped"));
+        final NativesCache cache = new NativesCache(root.resolve("natives-cache"));
+
+        assertThrows(IOException.class, () -> cache.extract(SHA1, PLATFORM, archive, EXCLUDES));
+        assertFalse(Files.exists(root.resolve("escaped.so")));
+        assertEquals(List.of(), list(cache.root()));
+    }
+
+    @Test
+    void concurrentExtractionsAgreeOnOneDirectory(final @TempDir Path root) throws Exception {
+        final Path archive = zip(root.resolve("natives.jar"), Map.of("liblwjgl.so", "lwjgl"));
+        final NativesCache cache = new NativesCache(root.resolve("natives-cache"));
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Callable<Path>> extractions = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                extractions.add(() -> cache.extract(SHA1, PLATFORM, archive, EXCLUDES));
+            }
+            for (final Future<Path> future : executor.invokeAll(extractions)) {
+                assertEquals(cache.resolve(SHA1, PLATFORM), future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("lwjgl", Files.readString(cache.resolve(SHA1, PLATFORM).resolve("liblwjgl.so")));
+        assertEquals(List.of(cache.resolve(SHA1, PLATFORM)), list(cache.root()));
+    }
+
+    private static @NotNull Path zip(final @NotNull Path path, final @NotNull Map<String, String> entries) throws IOException {
+        try (final OutputStream out = Files.newOutputStream(path); final ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (final Map.Entry<String, String> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return path;
+    }
+
+    private static @NotNull List<Path> list(final @NotNull Path directory) throws IOException {
+        if (Files.notExists(directory)) {
+            return List.of();
+        }
+        try (final Stream<Path> stream = Files.list(directory)) {
+            return stream.toList();
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerificationIndexTest {
+
+    private static final String SHA1 = "a94a8fe5ccb19ba61c4c0873d391e987982fbbd3";
+    private static final String OTHER_SHA1 = "0000000000000000000000000000000000000000";
+
+    @Test
+    void recordedFilesStayVerifiedAcrossLoads(final @TempDir Path root) throws IOException {
+        final Path indexFile = root.resolve("cache/verified.json");
+        final Path file = Files.writeString(Files.createDirectories(root.resolve("libraries")).resolve("test.jar"), "test");
+        final VerificationIndex index = VerificationIndex.load(indexFile, root);
+
+        assertFalse(index.isVerified(file, SHA1));
+        index.record(file, SHA1);
+        assertTrue(index.isVerified(file, SHA1));
+        assertFalse(index.isVerified(file, OTHER_SHA1));
+        index.save();
+
+        final VerificationIndex loaded = VerificationIndex.load(indexFile, root);
+        assertTrue(loaded.isVerified(file, SHA1));
+        // Files are keyed relative to the root of the process directory
+        assertTrue(Files.readString(indexFile).contains("libraries/test.jar"));
+    }
+
+    @Test
+    void changedFilesAreVerifiedAgain(final @TempDir Path root) throws IOException {
+        final Path file = Files.writeString(root.resolve("test.jar"), "test");
+        final VerificationIndex index = VerificationIndex.load(root.resolve("verified.json"), root);
+        index.record(file, SHA1);
+
+        Files.writeString(file, "tset");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60L)));
+        assertFalse(index.isVerified(file, SHA1));
+
+        index.record(file, SHA1);
+        Files.delete(file);
+        assertFalse(index.isVerified(file, SHA1));
+    }
+
+    @Test
+    void invalidatedFilesAreForgotten(final @TempDir Path root) throws IOException {
+        final Path indexFile = root.resolve("verified.json");
+        final Path file = Files.writeString(root.resolve("test.jar"), "test");
+        final VerificationIndex index = VerificationIndex.load(indexFile, root);
+        index.record(file, SHA1);
+        index.save();
+
+        index.invalidate(file);
+        index.save();
+        assertFalse(VerificationIndex.load(indexFile, root).isVerified(file, SHA1));
+    }
+
+    @Test
+    void unreadableIndexVerifiesEverything(final @TempDir Path root) throws IOException {
+        final Path indexFile = Files.writeString(root.resolve("verified.json"), "{\"files\": [");
+        final Path file = Files.writeString(root.resolve("test.jar"), "test");
+
+        final VerificationIndex index = VerificationIndex.load(indexFile, root);
+        assertFalse(index.isVerified(file, SHA1));
+        index.record(file, SHA1);
+        index.save();
+        assertTrue(VerificationIndex.load(indexFile, root).isVerified(file, SHA1));
+    }
+
+    @Test
+    void unchangedIndexIsNotRewritten(final @TempDir Path root) throws IOException {
+        final Path indexFile = root.resolve("verified.json");
+        final VerificationIndex index = VerificationIndex.load(indexFile, root);
+
+        index.save();
+        assertFalse(Files.exists(indexFile));
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.cache;
+
+import be.yvanmazy.remotedminecraft.util.HashUtil;
+import be.yvanmazy.remotedminecraft.util.JsonUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionBundleTest {
+
+    private static final byte[] JAR = "library".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void archivesWithoutManifestAreRejected(final @TempDir Path root) throws IOException {
+        final Path bundle = zip(root.resolve("bundle.zip"), null, Map.of("libraries/a.jar", JAR));
+
+        final IOException exception = assertThrows(IOException.class, () -> importInto(bundle, root.resolve("node")));
+        assertTrue(exception.getMessage().contains("is not a version bundle"), exception.getMessage());
+    }
+
+    @Test
+    void tamperedEntriesAreNotInstalled(final @TempDir Path root) throws IOException {
+        final BundleManifest manifest = manifest(new BundleManifest.Entry("libraries/a.jar", sha1(JAR), JAR.length));
+        final Path bundle = zip(root.resolve("bundle.zip"), manifest, Map.of("libraries/a.jar", "tampered".getBytes(StandardCharsets.UTF_8)));
+
+        assertThrows(IOException.class, () -> importInto(bundle, root.resolve("node")));
+        assertEquals(List.of(), files(root.resolve("node/libraries")));
+    }
+
+    @Test
+    void entriesEscapingTheDirectoryAreRejected(final @TempDir Path root) throws IOException {
+        final BundleManifest manifest = manifest(new BundleManifest.Entry("../escaped.jar", sha1(JAR), JAR.length));
+        final Path bundle = zip(root.resolve("bundle.zip"), manifest, Map.of("../escaped.jar", JAR));
+
+        assertThrows(IOException.class, () -> importInto(bundle, root.resolve("node")));
+        assertFalse(Files.exists(root.resolve("escaped.jar")));
+    }
+
+    @Test
+    void truncatedBundlesFail(final @TempDir Path root) throws IOException {
+        final BundleManifest manifest = manifest(new BundleManifest.Entry("libraries/a.jar", sha1(JAR), JAR.length),
+                new BundleManifest.Entry("libraries/b.jar", sha1(JAR), JAR.length));
+        final Path bundle = zip(root.resolve("bundle.zip"), manifest, Map.of("libraries/a.jar", JAR));
+
+        final IOException exception = assertThrows(IOException.class, () -> importInto(bundle, root.resolve("node")));
+        assertTrue(exception.getMessage().contains("is truncated"), exception.getMessage());
+    }
+
+    @Test
+    void sharedFilesAreAdoptedByTheStore(final @TempDir Path root) throws IOException {
+        final BundleManifest manifest = manifest(new BundleManifest.Entry("libraries/a.jar", sha1(JAR), JAR.length));
+        final Path bundle = zip(root.resolve("bundle.zip"), manifest, Map.of("libraries/a.jar", JAR));
+        final ContentStore store = new ContentStore(root.resolve("store"));
+
+        assertEquals(manifest, VersionBundle.importInto(bundle, root.resolve("node"), store.root(), Runnable::run));
+        assertTrue(Files.isSameFile(store.resolve(sha1(JAR)), root.resolve("node/libraries/a.jar")));
+    }
+
+    @Test
+    void exportRequiresAProvisionedVersion(final @TempDir Path root) {
+        assertThrows(IOException.class, () -> VersionBundle.export(root, "1.0", root.resolve("bundle.zip")));
+        assertFalse(Files.exists(root.resolve("bundle.zip")));
+    }
+
+    private static @NotNull BundleManifest importInto(final @NotNull Path bundle, final @NotNull Path directory) throws IOException {
+        return VersionBundle.importInto(bundle, directory, null, Runnable::run);
+    }
+
+    private static @NotNull BundleManifest manifest(final @NotNull BundleManifest.Entry... entries) {
+        return new BundleManifest(BundleManifest.FORMAT, "1.0", List.of(entries));
+    }
+
+    private static @NotNull Path zip(final @NotNull Path path, final @Nullable BundleManifest manifest, final @NotNull Map<String, byte[]> entries)
+            throws IOException {
+        final Map<String, byte[]> content = new LinkedHashMap<>();
+        if (manifest != null) {
+            content.put("bundle.json", JsonUtil.toJson(manifest).getBytes(StandardCharsets.UTF_8));
+        }
+        content.putAll(entries);
+        try (final OutputStream out = Files.newOutputStream(path); final ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (final Map.Entry<String, byte[]> entry : content.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+        }
+        return path;
+    }
+
+    private static @NotNull List<Path> files(final @NotNull Path directory) throws IOException {
+        if (Files.notExists(directory)) {
+            return List.of();
+        }
+        try (final Stream<Path> stream = Files.list(directory)) {
+            return stream.toList();
+        }
+    }
+
+    private static @NotNull String sha1(final byte @NotNull [] content) {
+        try {
+            return HashUtil.hash(new ByteArrayInputStream(content));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssetFilterTest {
+
+    @Test
+    void allAcceptsEverything() {
+        assertTrue(AssetFilter.all().isAll());
+        assertTrue(AssetFilter.all().accepts("minecraft/sounds/ambient/cave/cave1.ogg"));
+    }
+
+    @Test
+    void singleStarsStayWithinOneDirectory() {
+        final AssetFilter filter = AssetFilter.all().exclude("minecraft/lang/*.json");
+
+        assertFalse(filter.accepts("minecraft/lang/fr_fr.json"));
+        assertTrue(filter.accepts("minecraft/lang/extra/fr_fr.json"));
+        assertTrue(filter.accepts("minecraft/lang/fr_fr.lang"));
+    }
+
+    @Test
+    void doubleStarsCrossDirectories() {
+        final AssetFilter filter = AssetFilter.all().include("minecraft/**");
+
+        assertTrue(filter.accepts("minecraft/textures/block/stone.png"));
+        assertFalse(filter.accepts("realms/lang/en_us.json"));
+        assertFalse(filter.isAll());
+    }
+
+    @Test
+    void questionMarksMatchOneCharacter() {
+        final AssetFilter filter = AssetFilter.all().include("icons/icon_??x??.png");
+
+        assertTrue(filter.accepts("icons/icon_16x16.png"));
+        assertFalse(filter.accepts("icons/icon_128x128.png"));
+        assertFalse(filter.accepts("icons/icon_1/x16.png"));
+    }
+
+    @Test
+    void regexCharactersAreLiteral() {
+        final AssetFilter filter = AssetFilter.all().exclude("pack.mcmeta", "a+b/(c)/*");
+
+        assertFalse(filter.accepts("pack.mcmeta"));
+        assertTrue(filter.accepts("packxmcmeta"));
+        assertFalse(filter.accepts("a+b/(c)/d"));
+        assertTrue(filter.accepts("aab/(c)/d"));
+    }
+
+    @Test
+    void excludesWinOverIncludes() {
+        final AssetFilter filter = AssetFilter.all().include("minecraft/**").exclude("minecraft/sounds/**");
+
+        assertTrue(filter.accepts("minecraft/lang/en_us.json"));
+        assertFalse(filter.accepts("minecraft/sounds/random/click.ogg"));
+    }
+
+    @Test
+    void headlessSkipsModernAndLegacySounds() {
+        final AssetFilter filter = AssetFilter.headless();
+
+        assertFalse(filter.accepts("minecraft/sounds/music/game/calm1.ogg"));
+        assertFalse(filter.accepts("sounds/random/click.ogg"));
+        assertFalse(filter.accepts("records/cat.ogg"));
+        assertTrue(filter.accepts("minecraft/lang/en_us.json"));
+        assertTrue(filter.accepts("minecraft/sounds.json"));
+    }
+
+    @Test
+    void filtersAreValues() {
+        assertEquals(AssetFilter.all().exclude("a/**"), AssetFilter.all().exclude("a/**"));
+        assertEquals(AssetFilter.all().exclude("a/**").hashCode(), AssetFilter.all().exclude("a/**").hashCode());
+        assertNotEquals(AssetFilter.all().exclude("a/**"), AssetFilter.all().include("a/**"));
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetadataFreshnessTest {
+
+    @Test
+    void maxAgeIsStaleOnceExceeded() {
+        final MetadataFreshness freshness = MetadataFreshness.maxAge(Duration.ofHours(1L));
+
+        assertFalse(freshness.isStale(Instant.now().minus(Duration.ofMinutes(59L))));
+        assertTrue(freshness.isStale(Instant.now().minus(Duration.ofMinutes(61L))));
+        assertFalse(freshness.isOffline());
+    }
+
+    @Test
+    void defaultNeverRevalidatesOnItsOwn() {
+        assertFalse(MetadataFreshness.DEFAULT.isStale(Instant.EPOCH));
+    }
+
+    @Test
+    void alwaysCheckIsAlwaysStale() {
+        assertTrue(MetadataFreshness.alwaysCheck().isStale(Instant.now()));
+    }
+
+    @Test
+    void offlineIsNeverStale() {
+        assertTrue(MetadataFreshness.offline().isOffline());
+        assertFalse(MetadataFreshness.offline().isStale(Instant.EPOCH));
+    }
+
+    @Test
+    void maxAgeMustNotBeNegative() {
+        assertThrows(IllegalArgumentException.class, () -> MetadataFreshness.maxAge(Duration.ofSeconds(-1L)));
+        assertThrows(NullPointerException.class, () -> MetadataFreshness.maxAge(null));
+    }
+
+}
\ No newline at end of file
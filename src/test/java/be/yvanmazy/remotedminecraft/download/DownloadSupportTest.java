@@ -0,0 +1,199 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.download;
+
+import be.yvanmazy.remotedminecraft.util.HashUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DownloadSupportTest {
+
+    private static final String URL = "https://example.com/client.jar";
+    private static final byte[] CONTENT = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+    private static final String SHA1 = sha1(CONTENT);
+
+    @Test
+    void verifiedDownloadsArePublished(final @TempDir Path directory) throws IOException {
+        final Path path = directory.resolve("libraries/client.jar");
+
+        assertEquals(CONTENT.length, transport(CONTENT).download(URL, path, SHA1));
+        assertArrayEquals(CONTENT, Files.readAllBytes(path));
+        assertEquals(List.of(path), files(directory.resolve("libraries")));
+    }
+
+    @Test
+    void checksumMismatchKeepsThePreviousFile(final @TempDir Path directory) throws IOException {
+        final Path path = Files.writeString(directory.resolve("client.jar"), "previous");
+
+        final ChecksumException exception = assertThrows(ChecksumException.class,
+                () -> transport("corrupted".getBytes(StandardCharsets.UTF_8)).download(URL, path, SHA1));
+        assertEquals(SHA1, exception.getExpected());
+        assertEquals("previous", Files.readString(path));
+        assertEquals(List.of(path), files(directory));
+    }
+
+    @Test
+    void interruptedDownloadsAreNeverVisible(final @TempDir Path directory) throws IOException {
+        final Path path = directory.resolve("client.jar");
+        final DownloadTransport transport = url -> failingAfter(new ByteArrayInputStream(CONTENT), 10);
+
+        assertThrows(IOException.class, () -> transport.download(URL, path, SHA1));
+        assertEquals(List.of(), files(directory));
+    }
+
+    @Test
+    void interruptedDownloadsResumeWhereTheyStopped(final @TempDir Path directory) throws IOException {
+        final Path path = directory.resolve("client.jar");
+        final RangeTransport transport = new RangeTransport(CONTENT, "\"v1\"");
+        transport.failAfter = 10;
+
+        assertThrows(IOException.class, () -> transport.downloadResumable(URL, path, SHA1));
+        assertEquals(10L, Files.size(directory.resolve("client.jar.part")));
+        assertTrue(Files.exists(directory.resolve("client.jar.part.json")));
+
+        assertEquals(CONTENT.length - 10L, transport.downloadResumable(URL, path, SHA1));
+        assertEquals(List.of(0L, 10L), transport.offsets);
+        assertArrayEquals(CONTENT, Files.readAllBytes(path));
+        assertEquals(List.of(path), files(directory));
+    }
+
+    @Test
+    void changedFilesAreDownloadedFromTheStart(final @TempDir Path directory) throws IOException {
+        final Path path = directory.resolve("client.jar");
+        final RangeTransport transport = new RangeTransport(CONTENT, "\"v1\"");
+        transport.failAfter = 10;
+        assertThrows(IOException.class, () -> transport.downloadResumable(URL, path, SHA1));
+
+        // The server no longer honours the range once the file behind the url changed
+        transport.validator = "\"v2\"";
+        assertEquals(CONTENT.length, transport.downloadResumable(URL, path, SHA1));
+        assertArrayEquals(CONTENT, Files.readAllBytes(path));
+        assertEquals(List.of(path), files(directory));
+    }
+
+    @Test
+    void corruptedPartialDownloadsAreDiscarded(final @TempDir Path directory) throws IOException {
+        final Path path = directory.resolve("client.jar");
+        final RangeTransport transport = new RangeTransport(CONTENT, "\"v1\"");
+        transport.failAfter = 10;
+        assertThrows(IOException.class, () -> transport.downloadResumable(URL, path, SHA1));
+        Files.writeString(directory.resolve("client.jar.part"), "0123456789");
+
+        assertThrows(ChecksumException.class, () -> transport.downloadResumable(URL, path, SHA1));
+        assertEquals(List.of(), files(directory));
+        assertEquals(CONTENT.length, transport.downloadResumable(URL, path, SHA1));
+        assertArrayEquals(CONTENT, Files.readAllBytes(path));
+    }
+
+    private static @NotNull DownloadTransport transport(final byte @NotNull [] content) {
+        return url -> new ByteArrayInputStream(content);
+    }
+
+    private static @NotNull InputStream failingAfter(final @NotNull InputStream in, final int limit) {
+        return new FilterInputStream(in) {
+            private int read;
+
+            @Override
+            public int read() throws IOException {
+                final byte[] buf = new byte[1];
+                return this.read(buf, 0, 1) == -1 ? -1 : buf[0] & 0xFF;
+            }
+
+            @Override
+            public int read(final byte @NotNull [] b, final int off, final int len) throws IOException {
+                if (this.read >= limit) {
+                    throw new IOException("Connection reset");
+                }
+                final int count = super.read(b, off, Math.min(len, limit - this.read));
+                if (count > 0) {
+                    this.read += count;
+                }
+                return count;
+            }
+        };
+    }
+
+    private static @NotNull List<Path> files(final @NotNull Path directory) throws IOException {
+        try (final Stream<Path> stream = Files.list(directory)) {
+            return stream.sorted().toList();
+        }
+    }
+
+    private static final class RangeTransport implements DownloadTransport {
+
+        private final List<Long> offsets = new ArrayList<>();
+        private final byte[] content;
+        private String validator;
+        private int failAfter = -1;
+
+        private RangeTransport(final byte @NotNull [] content, final @NotNull String validator) {
+            this.content = content;
+            this.validator = validator;
+        }
+
+        @Override
+        public @NotNull InputStream open(final @NotNull String url) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public @NotNull RangeResponse open(final @NotNull String url, final long offset, final @Nullable String validator) {
+            this.offsets.add(offset);
+            final long start = this.validator.equals(validator) ? offset : 0L;
+            InputStream body = new ByteArrayInputStream(this.content, (int) start, this.content.length - (int) start);
+            if (this.failAfter >= 0) {
+                body = failingAfter(body, this.failAfter);
+                this.failAfter = -1;
+            }
+            return new RangeResponse(body, start, this.validator);
+        }
+
+    }
+
+    private static @NotNull String sha1(final byte @NotNull [] content) {
+        try {
+            return HashUtil.hash(new ByteArrayInputStream(content));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.download;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpDownloadTransportTest {
+
+    private static final String ETAG = "\"v1\"";
+    private static final byte[] MANIFEST = "{\"versions\":[]}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] JAR = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+
+    private final List<String> conditions = new CopyOnWriteArrayList<>();
+    private final DownloadTransport transport = DownloadTransport.http(Duration.ofSeconds(5L), Duration.ofSeconds(5L));
+    private HttpServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.createContext("/manifest.json", exchange -> {
+            final String condition = exchange.getRequestHeaders().getFirst("If-None-Match");
+            this.conditions.add(String.valueOf(condition));
+            if (ETAG.equals(condition)) {
+                exchange.sendResponseHeaders(304, -1L);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("ETag", ETAG);
+            respond(exchange, 200, MANIFEST);
+        });
+        this.server.createContext("/client.jar", exchange -> {
+            final String range = exchange.getRequestHeaders().getFirst("Range");
+            exchange.getResponseHeaders().add("ETag", ETAG);
+            if (range == null || !ETAG.equals(exchange.getRequestHeaders().getFirst("If-Range"))) {
+                respond(exchange, 200, JAR);
+                return;
+            }
+            final int start = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + '-' + (JAR.length - 1) + '/' + JAR.length);
+            respond(exchange, 206, Arrays.copyOfRange(JAR, start, JAR.length));
+        });
+        this.server.createContext("/missing", exchange -> respond(exchange, 404, new byte[0]));
+        this.server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        this.server.stop(0);
+    }
+
+    @Test
+    void unchangedMetadataIsNotDownloadedAgain(final @TempDir Path directory) throws IOException {
+        final Path path = directory.resolve("version_manifest.json");
+
+        final RevalidationResult first = this.transport.downloadIfModified(this.url("/manifest.json"), path, null, null);
+        assertTrue(first.modified());
+        assertEquals(ETAG, first.etag());
+        assertArrayEquals(MANIFEST, Files.readAllBytes(path));
+
+        Files.writeString(path, "kept");
+        final RevalidationResult second = this.transport.downloadIfModified(this.url("/manifest.json"), path, ETAG, null);
+        assertFalse(second.modified());
+        assertEquals(ETAG, second.etag());
+        assertEquals("kept", Files.readString(path));
+        assertEquals(List.of("null", ETAG), this.conditions);
+    }
+
+    @Test
+    void rangesAreRequestedWhileTheFileIsUnchanged() throws IOException {
+        final RangeResponse resumed = this.transport.open(this.url("/client.jar"), 10L, ETAG);
+        assertEquals(10L, resumed.offset());
+        assertEquals(ETAG, resumed.validator());
+        try (final InputStream body = resumed.body()) {
+            assertArrayEquals(Arrays.copyOfRange(JAR, 10, JAR.length), body.readAllBytes());
+        }
+
+        final RangeResponse restarted = this.transport.open(this.url("/client.jar"), 10L, "\"v0\"");
+        assertEquals(0L, restarted.offset());
+        try (final InputStream body = restarted.body()) {
+            assertArrayEquals(JAR, body.readAllBytes());
+        }
+    }
+
+    @Test
+    void missingFilesAreReportedAsSuch(final @TempDir Path directory) {
+        assertThrows(FileNotFoundException.class, () -> this.transport.download(this.url("/missing"), directory.resolve("missing")));
+        assertFalse(Files.exists(directory.resolve("missing")));
+    }
+
+    private @NotNull String url(final @NotNull String path) {
+        return "http://127.0.0.1:" + this.server.getAddress().getPort() + path;
+    }
+
+    private static void respond(final @NotNull HttpExchange exchange, final int status, final byte @NotNull [] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1L : body.length);
+        try (final OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+}
\ No newline at end of file
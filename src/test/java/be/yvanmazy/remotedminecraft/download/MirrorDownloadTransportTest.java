@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.download;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MirrorDownloadTransportTest {
+
+    private static final String URL = "https://launchermeta.mojang.com/mc/game/version_manifest.json";
+
+    @Test
+    void urlsAreServedFromTheirHostDirectory(final @TempDir Path root) throws IOException {
+        final Path mirrored = write(root.resolve("mirror/launchermeta.mojang.com/mc/game/version_manifest.json"), "manifest");
+        final DownloadTransport transport = DownloadTransport.mirror(root.resolve("mirror"));
+
+        try (final InputStream in = transport.open(URL)) {
+            assertEquals("manifest", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        final Path target = root.resolve("process/versions/version_manifest.json");
+        assertEquals(8L, transport.download(URL, target));
+        assertEquals(Files.readString(mirrored), Files.readString(target));
+    }
+
+    @Test
+    void missesNameTheExpectedFile(final @TempDir Path root) {
+        final DownloadTransport transport = DownloadTransport.mirror(root);
+
+        final FileNotFoundException exception = assertThrows(FileNotFoundException.class, () -> transport.open(URL));
+        assertTrue(exception.getMessage().contains(root.resolve("launchermeta.mojang.com/mc/game/version_manifest.json").toString()));
+        assertThrows(FileNotFoundException.class, () -> transport.open("https://launchermeta.mojang.com/../../secret"));
+        assertThrows(FileNotFoundException.class, () -> transport.open("file:///etc/hosts"));
+    }
+
+    @Test
+    void revalidationFollowsTheMirroredFile(final @TempDir Path root) throws IOException {
+        final Path mirrored = write(root.resolve("mirror/launchermeta.mojang.com/mc/game/version_manifest.json"), "manifest");
+        final DownloadTransport transport = DownloadTransport.mirror(root.resolve("mirror"));
+        final Path target = root.resolve("version_manifest.json");
+
+        final RevalidationResult first = transport.downloadIfModified(URL, target, null, null);
+        assertTrue(first.modified());
+        assertFalse(transport.downloadIfModified(URL, target, null, first.lastModified()).modified());
+
+        Files.writeString(mirrored, "updated");
+        Files.setLastModifiedTime(mirrored, FileTime.from(Instant.now().plusSeconds(60L)));
+        assertTrue(transport.downloadIfModified(URL, target, null, first.lastModified()).modified());
+        assertEquals("updated", Files.readString(target));
+    }
+
+    @Test
+    void rangesSkipAheadWhileTheFileIsUnchanged(final @TempDir Path root) throws IOException {
+        final Path mirrored = write(root.resolve("launchermeta.mojang.com/mc/game/version_manifest.json"), "manifest");
+        final DownloadTransport transport = DownloadTransport.mirror(root);
+        final String validator = Files.getLastModifiedTime(mirrored).toString();
+
+        final RangeResponse resumed = transport.open(URL, 3L, validator);
+        assertEquals(3L, resumed.offset());
+        try (final InputStream in = resumed.body()) {
+            assertEquals("ifest", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        final RangeResponse restarted = transport.open(URL, 3L, "stale");
+        assertEquals(0L, restarted.offset());
+        restarted.body().close();
+    }
+
+    private static Path write(final Path path, final String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        return Files.writeString(path, content);
+    }
+
+}
\ No newline at end of file
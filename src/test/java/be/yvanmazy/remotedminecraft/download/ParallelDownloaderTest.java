@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.download;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelDownloaderTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+
+    @AfterEach
+    void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void everyTaskIsFetchedWithinTheConcurrency() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+        final ParallelDownloader downloader = new ParallelDownloader(this.executor, 4, task -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(2L);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return 10L;
+        });
+
+        assertEquals(new DownloadReport(50, 500L), downloader.download(tasks(50)));
+        assertTrue(peak.get() <= 4, "Ran " + peak.get() + " fetches at once");
+        assertTrue(peak.get() > 1, "Fetches did not run in parallel");
+    }
+
+    @Test
+    void firstFailureStopsTheBatch() {
+        final AtomicInteger fetched = new AtomicInteger();
+        final ParallelDownloader downloader = new ParallelDownloader(this.executor, 2, task -> {
+            if (fetched.incrementAndGet() == 3) {
+                throw new IOException("Connection reset");
+            }
+            return 1L;
+        });
+
+        final IOException exception = assertThrows(IOException.class, () -> downloader.download(tasks(100)));
+        assertTrue(exception.getMessage().startsWith("Failed to download 'https://example.com/"), exception.getMessage());
+        assertEquals("Connection reset", exception.getCause().getMessage());
+        assertTrue(fetched.get() < 100, "Fetched " + fetched.get() + " tasks after a failure");
+    }
+
+    @Test
+    void emptyBatchDoesNotUseTheExecutor() throws Exception {
+        final ParallelDownloader downloader = new ParallelDownloader(command -> {
+            throw new AssertionError("Nothing to schedule");
+        }, 4, task -> 1L);
+
+        assertSame(DownloadReport.EMPTY, downloader.download(List.of()));
+    }
+
+    @Test
+    void rejectedWorkersFailTheBatch() {
+        final ParallelDownloader downloader = new ParallelDownloader(command -> {
+            throw new RejectedExecutionException("Shut down");
+        }, 4, task -> 1L);
+
+        assertThrows(RejectedExecutionException.class, () -> downloader.download(tasks(8)));
+    }
+
+    @Test
+    void concurrencyMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelDownloader(this.executor, 0, task -> 1L));
+    }
+
+    private static @NotNull List<DownloadTask> tasks(final int count) {
+        final List<DownloadTask> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new DownloadTask("https://example.com/" + i, Path.of("objects", Integer.toString(i))));
+        }
+        return tasks;
+    }
+
+}
\ No newline at end of file
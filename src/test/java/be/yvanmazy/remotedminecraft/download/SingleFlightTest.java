@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.download;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneCall() throws Exception {
+        final SingleFlight<String, Integer> flights = new SingleFlight<>();
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<Integer> leader = CompletableFuture.supplyAsync(() -> execute(flights, "key", () -> {
+            started.countDown();
+            await(release);
+            return calls.incrementAndGet();
+        }), this.executor);
+        assertTrue(started.await(10L, TimeUnit.SECONDS));
+        assertTrue(flights.isInFlight("key"));
+
+        final CompletableFuture<Integer> follower = CompletableFuture.supplyAsync(() -> execute(flights, "key", calls::incrementAndGet), this.executor);
+        // Other keys are not held up by the call in flight
+        assertEquals(1, flights.execute("other", () -> 1));
+        Thread.sleep(50L);
+        assertFalse(follower.isDone());
+        release.countDown();
+
+        assertEquals(1, leader.get(10L, TimeUnit.SECONDS));
+        assertEquals(1, follower.get(10L, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+        assertFalse(flights.isInFlight("key"));
+        assertEquals(2, flights.execute("key", calls::incrementAndGet));
+    }
+
+    @Test
+    void failuresReachEveryCaller() throws Exception {
+        final SingleFlight<String, Integer> flights = new SingleFlight<>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<Integer> leader = CompletableFuture.supplyAsync(() -> execute(flights, "key", () -> {
+            started.countDown();
+            await(release);
+            throw new IOException("Connection reset");
+        }), this.executor);
+        assertTrue(started.await(10L, TimeUnit.SECONDS));
+        final CompletableFuture<Integer> follower = CompletableFuture.supplyAsync(() -> execute(flights, "key", () -> 1), this.executor);
+        Thread.sleep(50L);
+        release.countDown();
+
+        for (final CompletableFuture<Integer> future : List.of(leader, follower)) {
+            final ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(10L, TimeUnit.SECONDS));
+            assertEquals("Connection reset", exception.getCause().getCause().getMessage());
+        }
+        assertFalse(flights.isInFlight("key"));
+    }
+
+    private static int execute(final SingleFlight<String, Integer> flights, final String key, final SingleFlight.Call<Integer> call) {
+        try {
+            return flights.execute(key, call);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10L, TimeUnit.SECONDS));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Darkkraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.remotedminecraft.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashUtilTest {
+
+    private static final byte[] ABC = "abc".getBytes(StandardCharsets.UTF_8);
+    private static final String ABC_SHA1 = "a9993e364706816aba3e25717850c26c9cd0d89d";
+
+    @Test
+    void streamsAndFilesHashAlike(final @TempDir Path directory) throws IOException {
+        assertEquals(ABC_SHA1, HashUtil.hash(new ByteArrayInputStream(ABC)));
+        assertEquals(ABC_SHA1, HashUtil.hash(Files.write(directory.resolve("abc"), ABC)));
+        assertEquals("da39a3ee5e6b4b0d3255bfef95601890afd80709", HashUtil.hash(Files.write(directory.resolve("empty"), new byte[0])));
+    }
+
+    @Test
+    void largeFilesAreHashedThroughMappings(final @TempDir Path directory) throws IOException {
+        final byte[] content = new byte[9 * 1024 * 1024 + 7];
+        new Random(42L).nextBytes(content);
+        final Path path = Files.write(directory.resolve("client.jar"), content);
+
+        assertEquals(HashUtil.hash(new ByteArrayInputStream(content)), HashUtil.hash(path));
+    }
+
+    @Test
+    void copyHashesWhatItWrites() throws IOException {
+        final MessageDigest digest = HashUtil.newDigest();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(ABC.length, HashUtil.copy(new ByteArrayInputStream(ABC), out, digest));
+        assertArrayEquals(ABC, out.toByteArray());
+        assertEquals(ABC_SHA1, HashUtil.toHex(digest.digest()));
+    }
+
+    @Test
+    void verifyAllReturnsEveryMismatch(final @TempDir Path directory) throws IOException {
+        final List<HashUtil.Check> checks = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            checks.add(new HashUtil.Check(Files.write(directory.resolve("valid" + i), ABC), ABC_SHA1.toUpperCase()));
+        }
+        final HashUtil.Check corrupted = new HashUtil.Check(Files.writeString(directory.resolve("corrupted"), "abd"), ABC_SHA1);
+        final HashUtil.Check missing = new HashUtil.Check(directory.resolve("missing"), ABC_SHA1);
+        checks.add(5, corrupted);
+        checks.add(missing);
+
+        assertEquals(List.of(corrupted, missing), HashUtil.verifyAll(checks));
+        assertEquals(List.of(missing), HashUtil.verifyAll(List.of(missing)));
+        assertEquals(List.of(), HashUtil.verifyAll(List.of()));
+    }
+
+}
\ No newline at end of file